@@ -0,0 +1,73 @@
+package org.apache.pinot.tc.benchmarks;
+
+import org.apache.pinot.tc.BrokerService;
+import org.apache.pinot.tc.PinotServicesApplication;
+import org.apache.pinot.tc.api.QueryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecuteQueryBenchmark {
+
+    private static final String QUERY = "select c0, c1, c2, c3 from transcript";
+
+    @Param({"10", "1000", "10000"})
+    public int rows;
+
+    @Param({"LONG", "STRING"})
+    public String columnType;
+
+    private StubBroker stubBroker;
+    private ConfigurableApplicationContext context;
+    private BrokerService brokerService;
+
+    @Setup
+    public void setUp() {
+        stubBroker = new StubBroker(ResponseFixtures.queryResponse(rows, columnType));
+
+        context = new SpringApplicationBuilder(PinotServicesApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "pinot.broker.url=" + stubBroker.getUrl(),
+                        "logging.level.org.apache.pinot.tc=WARN")
+                .run();
+
+        brokerService = context.getBean(BrokerService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        stubBroker.close();
+    }
+
+    @Benchmark
+    public QueryResponse executeQuery() {
+        return brokerService.executeQuery(QUERY);
+    }
+
+    @Benchmark
+    public long streamQuery() {
+        return brokerService.streamQuery(QUERY).count().block();
+    }
+}
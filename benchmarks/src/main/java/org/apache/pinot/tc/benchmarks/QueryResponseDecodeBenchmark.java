@@ -0,0 +1,72 @@
+package org.apache.pinot.tc.benchmarks;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.pinot.tc.api.ArrowResponseReader;
+import org.apache.pinot.tc.api.QueryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// arrow's allocator needs access to java.nio internals
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class QueryResponseDecodeBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int rows;
+
+    @Param({"INT", "LONG", "DOUBLE", "STRING"})
+    public String columnType;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private BufferAllocator allocator;
+    private byte[] response;
+    private byte[] arrowResponse;
+
+    @Setup
+    public void setUp() {
+        allocator = new RootAllocator();
+        response = ResponseFixtures.queryResponse(rows, columnType);
+        arrowResponse = ResponseFixtures.arrowResponse(rows, columnType, allocator);
+    }
+
+    @TearDown
+    public void tearDown() {
+        allocator.close();
+    }
+
+    @Benchmark
+    public QueryResponse decodeQueryResponse() {
+        return jsonMapper.readValue(response, QueryResponse.class);
+    }
+
+    @Benchmark
+    public QueryResponse decodeArrow() {
+        return ArrowResponseReader.read(new ByteArrayInputStream(arrowResponse), allocator);
+    }
+
+    @Benchmark
+    public JsonNode decodeTree() {
+        return jsonMapper.readTree(response);
+    }
+}
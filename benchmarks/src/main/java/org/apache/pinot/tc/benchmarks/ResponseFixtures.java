@@ -0,0 +1,134 @@
+package org.apache.pinot.tc.benchmarks;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+final class ResponseFixtures {
+
+    static final int COLUMN_COUNT = 4;
+
+    private static final int ARROW_BATCH_ROWS = 4096;
+
+    private static final String[] SUBJECTS = {"Maths", "English", "Physics", "Chemistry", "History", "Geography"};
+
+    private ResponseFixtures() {
+    }
+
+    static byte[] queryResponse(int rows, String columnType) {
+        StringBuilder json = new StringBuilder(64 + rows * COLUMN_COUNT * 12);
+
+        json.append("{\"resultTable\":{\"dataSchema\":{\"columnNames\":[");
+
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            json.append(column == 0 ? "" : ",").append("\"c").append(column).append('"');
+        }
+
+        json.append("],\"columnDataTypes\":[");
+
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            json.append(column == 0 ? "" : ",").append('"').append(columnType).append('"');
+        }
+
+        json.append("]},\"rows\":[");
+
+        for (int row = 0; row < rows; row++) {
+            json.append(row == 0 ? "[" : ",[");
+
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                if (column > 0) {
+                    json.append(',');
+                }
+
+                long value = (long) row * COLUMN_COUNT + column;
+
+                switch (columnType) {
+                    case "INT" -> json.append((int) value);
+                    case "LONG" -> json.append(value * 1_000_003L);
+                    case "DOUBLE" -> json.append(value / 7.0);
+                    default -> json.append('"').append(SUBJECTS[(int) (value % SUBJECTS.length)]).append('"');
+                }
+            }
+
+            json.append(']');
+        }
+
+        json.append("]},\"exceptions\":[],\"numServersQueried\":1,\"numServersResponded\":1,\"numSegmentsQueried\":1,")
+                .append("\"numSegmentsProcessed\":1,\"numSegmentsMatched\":1,\"numDocsScanned\":").append(rows)
+                .append(",\"numEntriesScannedInFilter\":0,\"numEntriesScannedPostFilter\":").append(rows * COLUMN_COUNT)
+                .append(",\"numGroupsLimitReached\":false,\"totalDocs\":").append(rows)
+                .append(",\"timeUsedMs\":3,\"numRowsResultSet\":").append(rows).append('}');
+
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // the same rows as queryResponse, as an Arrow IPC stream
+    static byte[] arrowResponse(int rows, String columnType, BufferAllocator allocator) {
+        ArrowType type = switch (columnType) {
+            case "INT" -> new ArrowType.Int(32, true);
+            case "LONG" -> new ArrowType.Int(64, true);
+            case "DOUBLE" -> new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+            default -> ArrowType.Utf8.INSTANCE;
+        };
+
+        List<Field> fields = new ArrayList<>(COLUMN_COUNT);
+
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            fields.add(Field.nullable("c" + column, type));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(new Schema(fields), allocator);
+             ArrowStreamWriter writer = new ArrowStreamWriter(root, null, Channels.newChannel(out))) {
+            writer.start();
+
+            for (int start = 0; start < rows; start += ARROW_BATCH_ROWS) {
+                int batchRows = Math.min(ARROW_BATCH_ROWS, rows - start);
+                root.allocateNew();
+
+                for (int column = 0; column < COLUMN_COUNT; column++) {
+                    FieldVector vector = root.getVector(column);
+
+                    for (int i = 0; i < batchRows; i++) {
+                        long value = (long) (start + i) * COLUMN_COUNT + column;
+
+                        switch (vector) {
+                            case IntVector v -> v.setSafe(i, (int) value);
+                            case BigIntVector v -> v.setSafe(i, value * 1_000_003L);
+                            case Float8Vector v -> v.setSafe(i, value / 7.0);
+                            case VarCharVector v -> v.setSafe(i, SUBJECTS[(int) (value % SUBJECTS.length)].getBytes(StandardCharsets.UTF_8));
+                            default -> throw new IllegalStateException("unexpected vector " + vector);
+                        }
+                    }
+                }
+
+                root.setRowCount(batchRows);
+                writer.writeBatch();
+            }
+
+            writer.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,59 @@
+package org.apache.pinot.tc.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.apache.pinot.tc.PreparedPinotQuery;
+import org.apache.pinot.tc.api.SqlQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlQueryBenchmark {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private final String sql = "select studentID, firstName, lastName, avg(score) from transcript where subject = 'Maths' group by studentID, firstName, lastName order by avg(score) desc limit 100";
+
+    @Benchmark
+    public String writeValueAsString() {
+        return jsonMapper.writeValueAsString(new SqlQuery(sql));
+    }
+
+    private final PreparedPinotQuery prepared = PreparedPinotQuery.prepare(
+            "select studentID, firstName, lastName, avg(score) from transcript where subject = ? group by studentID, firstName, lastName order by avg(score) desc limit ?");
+
+    private final PreparedPinotQuery.Parameters parameters = prepared.newParameters()
+            .setString(0, "Maths")
+            .setInt(1, 100);
+
+    @Benchmark
+    public byte[] writeValueAsBytes() {
+        return jsonMapper.writeValueAsBytes(new SqlQuery(sql));
+    }
+
+    @Benchmark
+    public int renderPrepared() {
+        ByteBuf buf = prepared.render(parameters, PooledByteBufAllocator.DEFAULT);
+
+        try {
+            return buf.readableBytes();
+        } finally {
+            buf.release();
+        }
+    }
+}
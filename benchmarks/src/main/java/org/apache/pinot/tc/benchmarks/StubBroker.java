@@ -0,0 +1,29 @@
+package org.apache.pinot.tc.benchmarks;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+final class StubBroker implements AutoCloseable {
+
+    private final DisposableServer server;
+
+    StubBroker(byte[] response) {
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .post("/query", (request, reply) -> reply.header("Content-Type", "application/json").sendByteArray(Mono.just(response)))
+                        .post("/query/sql", (request, reply) -> reply.header("Content-Type", "application/json").sendByteArray(Mono.just(response))))
+                .bindNow();
+    }
+
+    String getUrl() {
+        return "http://localhost:%d".formatted(server.port());
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,58 @@
+package org.apache.pinot.tc.benchmarks;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.pinot.tc.api.ArrowResponseReader;
+import org.apache.pinot.tc.api.QueryResponse;
+import org.apache.pinot.tc.api.ResultTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+
+// the live broker only answers with JSON, so the Arrow decoder is checked against the JSON decode of the same rows
+class ArrowResponseReaderTest {
+
+    // spans more than one Arrow record batch
+    private static final int ROWS = 5000;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private BufferAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new RootAllocator();
+    }
+
+    @AfterEach
+    void tearDown() {
+        allocator.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"INT", "LONG", "DOUBLE", "STRING"})
+    void testArrowMatchesJson(String columnType) {
+        ResultTable json = jsonMapper.readValue(ResponseFixtures.queryResponse(ROWS, columnType), QueryResponse.class).getResultTable();
+        QueryResponse arrowResponse = ArrowResponseReader.read(new ByteArrayInputStream(ResponseFixtures.arrowResponse(ROWS, columnType, allocator)), allocator);
+        ResultTable arrow = arrowResponse.getResultTable();
+
+        Assertions.assertEquals(ROWS, arrowResponse.getNumRowsResultSet());
+        Assertions.assertEquals(json.getRowCount(), arrow.getRowCount());
+        Assertions.assertEquals(json.getDataSchema().getColumnNames(), arrow.getDataSchema().getColumnNames());
+        Assertions.assertEquals(json.getDataSchema().getColumnDataTypes(), arrow.getDataSchema().getColumnDataTypes());
+
+        for (int column = 0; column < json.getColumnCount(); column++) {
+            for (int row = 0; row < json.getRowCount(); row++) {
+                Assertions.assertEquals(json.getObject(row, column), arrow.getObject(row, column), "row %d, column %d".formatted(row, column));
+            }
+        }
+
+        // every vector was released once its batch was copied out
+        Assertions.assertEquals(0, allocator.getAllocatedMemory());
+    }
+}
@@ -0,0 +1,42 @@
+package org.apache.pinot.tc.loadgen;
+
+import org.apache.pinot.tc.BrokerService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// N virtual threads each issue a query, wait for the response and immediately issue the next one
+final class ClosedModelWorkload implements Workload {
+
+    private final int concurrency;
+
+    ClosedModelWorkload(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public void run(BrokerService brokerService, QueryMix mix, LatencyRecorder recorder, long deadlineNanos) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadlineNanos) {
+                        String query = mix.next();
+                        long start = System.nanoTime();
+
+                        try {
+                            brokerService.executeQuery(query);
+                            recorder.record(System.nanoTime() - start);
+                        } catch (Exception e) {
+                            recorder.error();
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "closed model, %d concurrent virtual threads".formatted(concurrency);
+    }
+}
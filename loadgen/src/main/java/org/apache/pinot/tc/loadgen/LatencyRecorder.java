@@ -0,0 +1,37 @@
+package org.apache.pinot.tc.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+final class LatencyRecorder {
+
+    static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos) {
+        recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    // everything recorded since the previous call, which is what makes per interval reporting cheap
+    Histogram interval() {
+        return recorder.getIntervalHistogram();
+    }
+
+    long errorsThenReset() {
+        return errors.sumThenReset();
+    }
+
+    static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    }
+}
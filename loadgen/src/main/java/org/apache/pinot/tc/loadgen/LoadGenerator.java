@@ -0,0 +1,179 @@
+package org.apache.pinot.tc.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.apache.pinot.tc.ApachePinotCluster;
+import org.apache.pinot.tc.BatchIngestConfiguration;
+import org.apache.pinot.tc.BrokerService;
+import org.apache.pinot.tc.ControllerService;
+import org.apache.pinot.tc.PinotServicesApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    public static void main(String[] args) throws IOException {
+        LoadGeneratorOptions options = LoadGeneratorOptions.parse(args);
+        QueryMix mix = QueryMix.load(options.getMix());
+        Workload workload = Workload.of(options);
+
+        log.info("running {} with {}", workload, options);
+
+        List<AutoCloseable> resources = new ArrayList<>();
+
+        try {
+            List<String> properties = new ArrayList<>(List.of("logging.level.org.apache.pinot.tc=WARN"));
+            ApachePinotCluster cluster = null;
+
+            switch (options.getTarget()) {
+                case "stub" -> {
+                    StubBroker stubBroker = new StubBroker(options.getStubLatency());
+                    resources.add(stubBroker);
+                    properties.add("pinot.broker.url=" + stubBroker.getUrl());
+                }
+                case "cluster" -> {
+                    cluster = ApachePinotCluster.builder()
+                            .withBrokers(options.getBrokers())
+                            .withServers(options.getServers())
+                            .build();
+                    resources.add(cluster);
+                    cluster.start();
+
+                    properties.add("pinot.broker.url=" + cluster.getBrokerUrls());
+                    properties.add("pinot.controller.url=http://localhost:%d".formatted(cluster.getControllerPort()));
+                }
+                // anything else is taken as the broker url(s) of an existing deployment
+                default -> properties.add("pinot.broker.url=" + options.getTarget());
+            }
+
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(PinotServicesApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(properties.toArray(String[]::new))
+                    .run();
+            resources.addFirst(context);
+
+            BrokerService brokerService = context.getBean(BrokerService.class);
+
+            if (cluster != null) {
+                loadTranscripts(context.getBean(ControllerService.class), brokerService);
+            }
+
+            report(run(brokerService, mix, workload, options), options);
+        } finally {
+            for (AutoCloseable resource : resources) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    log.warn("error closing {}: {}", resource, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Result run(BrokerService brokerService, QueryMix mix, Workload workload, LoadGeneratorOptions options) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        Histogram total = LatencyRecorder.newHistogram();
+        AtomicLong totalErrors = new AtomicLong();
+
+        long start = System.nanoTime();
+        long measureFrom = start + options.getWarmup().toNanos();
+        long deadline = measureFrom + options.getDuration().toNanos();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long intervalMillis = options.getReportInterval().toMillis();
+
+        // every interval is printed, but only intervals after the warmup count towards the final histogram
+        Runnable drain = () -> {
+            Histogram interval = recorder.interval();
+            long errors = recorder.errorsThenReset();
+            boolean measuring = System.nanoTime() > measureFrom;
+
+            if (measuring) {
+                synchronized (total) {
+                    total.add(interval);
+                }
+
+                totalErrors.addAndGet(errors);
+            }
+
+            System.out.printf("%s %8d queries %8.1f/s  p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms  errors %d%n",
+                    measuring ? "measure" : "warmup ", interval.getTotalCount(), interval.getTotalCount() * 1000d / intervalMillis,
+                    interval.getValueAtPercentile(50) / NANOS_PER_MILLI, interval.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                    interval.getMaxValue() / NANOS_PER_MILLI, errors);
+        };
+
+        reporter.scheduleAtFixedRate(drain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+
+        try {
+            workload.run(brokerService, mix, recorder, deadline);
+        } finally {
+            reporter.shutdown();
+
+            try {
+                reporter.awaitTermination(intervalMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            drain.run();
+        }
+
+        return new Result(total, totalErrors.get(), Duration.ofNanos(System.nanoTime() - measureFrom));
+    }
+
+    private static void report(Result result, LoadGeneratorOptions options) throws IOException {
+        Histogram histogram = result.histogram();
+        double seconds = result.elapsed().toNanos() / 1_000_000_000d;
+
+        System.out.printf("%n%d queries in %.1f s, %.1f queries/s, %d errors%n", histogram.getTotalCount(), seconds,
+                histogram.getTotalCount() / seconds, result.errors());
+        System.out.printf("p50 %.3f ms  p90 %.3f ms  p99 %.3f ms  p99.9 %.3f ms  max %.3f ms%n",
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI, histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI, histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI);
+
+        Path output = Path.of(options.getOutput());
+
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+
+        // .hgrm percentile distribution in milliseconds, loadable by the HdrHistogram plotter
+        try (PrintStream out = new PrintStream(Files.newOutputStream(output))) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+
+        System.out.printf("latency distribution written to %s%n", output.toAbsolutePath());
+    }
+
+    private static void loadTranscripts(ControllerService controllerService, BrokerService brokerService) throws IOException {
+        log.info("loading transcript table");
+
+        controllerService.createSchema(new ClassPathResource("transcript-schema.json"));
+        controllerService.createTable(new ClassPathResource("transcript-table-offline.json"));
+        controllerService.ingestFromFile("transcript_OFFLINE", new BatchIngestConfiguration("csv", ","), new ClassPathResource("transcripts.csv"));
+        brokerService.awaitRowCount("transcript", 4, Duration.ofMinutes(2));
+    }
+
+    private record Result(Histogram histogram, long errors, Duration elapsed) {
+    }
+}
@@ -0,0 +1,128 @@
+package org.apache.pinot.tc.loadgen;
+
+import com.google.common.base.MoreObjects;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+final class LoadGeneratorOptions {
+
+    private String target = "stub";
+    private String model = "closed";
+    private int concurrency = 64;
+    private double rate = 1000;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration reportInterval = Duration.ofSeconds(5);
+    private String mix;
+    private String output = "target/loadgen-latency.hgrm";
+    private int brokers = 1;
+    private int servers = 1;
+    private Duration stubLatency = Duration.ZERO;
+
+    private LoadGeneratorOptions() {
+    }
+
+    // --key=value pairs, e.g. --target=cluster --model=open --rate=500 --duration=2m --mix=queries.txt
+    static LoadGeneratorOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --key=value but got: " + arg);
+            }
+
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadGeneratorOptions options = new LoadGeneratorOptions();
+
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String value = entry.getValue();
+
+            switch (entry.getKey()) {
+                case "target" -> options.target = value;
+                case "model" -> options.model = value;
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "duration" -> options.duration = DurationStyle.detectAndParse(value);
+                case "warmup" -> options.warmup = DurationStyle.detectAndParse(value);
+                case "report-interval" -> options.reportInterval = DurationStyle.detectAndParse(value);
+                case "mix" -> options.mix = value;
+                case "output" -> options.output = value;
+                case "brokers" -> options.brokers = Integer.parseInt(value);
+                case "servers" -> options.servers = Integer.parseInt(value);
+                case "stub-latency" -> options.stubLatency = DurationStyle.detectAndParse(value);
+                default -> throw new IllegalArgumentException("unknown option: --" + entry.getKey());
+            }
+        }
+
+        return options;
+    }
+
+    String getTarget() {
+        return target;
+    }
+
+    String getModel() {
+        return model;
+    }
+
+    int getConcurrency() {
+        return concurrency;
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    Duration getReportInterval() {
+        return reportInterval;
+    }
+
+    String getMix() {
+        return mix;
+    }
+
+    String getOutput() {
+        return output;
+    }
+
+    int getBrokers() {
+        return brokers;
+    }
+
+    int getServers() {
+        return servers;
+    }
+
+    Duration getStubLatency() {
+        return stubLatency;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("target", target)
+                .add("model", model)
+                .add("concurrency", concurrency)
+                .add("rate", rate)
+                .add("duration", duration)
+                .add("warmup", warmup)
+                .add("mix", mix)
+                .add("brokers", brokers)
+                .add("servers", servers)
+                .toString();
+    }
+}
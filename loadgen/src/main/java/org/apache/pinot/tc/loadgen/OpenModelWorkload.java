@@ -0,0 +1,61 @@
+package org.apache.pinot.tc.loadgen;
+
+import org.apache.pinot.tc.BrokerService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+// queries arrive at a constant rate regardless of how fast responses come back, each on its own virtual thread.
+// latency is measured from the intended arrival time, so a stalled broker shows up in the percentiles instead of
+// silently lowering the offered load (coordinated omission)
+final class OpenModelWorkload implements Workload {
+
+    private final double rate;
+
+    OpenModelWorkload(double rate) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+
+        this.rate = rate;
+    }
+
+    @Override
+    public void run(BrokerService brokerService, QueryMix mix, LatencyRecorder recorder, long deadlineNanos) {
+        double intervalNanos = 1_000_000_000d / rate;
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intendedStart = start + (long) (i * intervalNanos);
+
+                if (intendedStart >= deadlineNanos) {
+                    break;
+                }
+
+                long wait = intendedStart - System.nanoTime();
+
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                String query = mix.next();
+
+                executor.submit(() -> {
+                    try {
+                        brokerService.executeQuery(query);
+                        recorder.record(System.nanoTime() - intendedStart);
+                    } catch (Exception e) {
+                        recorder.error();
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "open model, %.1f queries/s".formatted(rate);
+    }
+}
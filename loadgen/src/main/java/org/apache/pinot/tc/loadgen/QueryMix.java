@@ -0,0 +1,79 @@
+package org.apache.pinot.tc.loadgen;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class QueryMix {
+
+    private static final String DEFAULT_MIX = "query-mix.txt";
+
+    private final List<String> queries;
+    private final long[] cumulativeWeights;
+
+    private QueryMix(List<String> queries, long[] cumulativeWeights) {
+        this.queries = queries;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    // one "<weight> <sql>" per line, blank lines and lines starting with # are ignored
+    static QueryMix load(String path) throws IOException {
+        Resource resource = path != null ? new FileSystemResource(path) : new ClassPathResource(DEFAULT_MIX);
+
+        List<String> queries = new ArrayList<>();
+        List<Long> weights = new ArrayList<>();
+
+        for (String line : resource.getContentAsString(StandardCharsets.UTF_8).lines().toList()) {
+            String trimmed = line.strip();
+
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            String[] parts = trimmed.split("\\s+", 2);
+
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("expected '<weight> <sql>' but got: " + line);
+            }
+
+            weights.add(Long.parseLong(parts[0]));
+            queries.add(parts[1]);
+        }
+
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("query mix %s has no queries".formatted(resource));
+        }
+
+        long[] cumulativeWeights = new long[weights.size()];
+        long total = 0;
+
+        for (int i = 0; i < weights.size(); i++) {
+            total += weights.get(i);
+            cumulativeWeights[i] = total;
+        }
+
+        return new QueryMix(List.copyOf(queries), cumulativeWeights);
+    }
+
+    String next() {
+        long pick = ThreadLocalRandom.current().nextLong(cumulativeWeights[cumulativeWeights.length - 1]);
+
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return queries.get(i);
+            }
+        }
+
+        return queries.getLast();
+    }
+
+    List<String> getQueries() {
+        return queries;
+    }
+}
@@ -0,0 +1,41 @@
+package org.apache.pinot.tc.loadgen;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+// answers every query with the same small result, optionally after a fixed delay, so the client side can be
+// load tested without a cluster
+final class StubBroker implements AutoCloseable {
+
+    private static final byte[] RESPONSE = ("{\"resultTable\":{\"dataSchema\":{\"columnNames\":[\"count(*)\"],\"columnDataTypes\":[\"LONG\"]},"
+            + "\"rows\":[[4]]},\"exceptions\":[],\"numServersQueried\":1,\"numServersResponded\":1,\"numSegmentsQueried\":1,"
+            + "\"numSegmentsProcessed\":1,\"numSegmentsMatched\":1,\"numDocsScanned\":4,\"numEntriesScannedInFilter\":0,"
+            + "\"numEntriesScannedPostFilter\":0,\"totalDocs\":4,\"timeUsedMs\":1,\"numRowsResultSet\":1}").getBytes(StandardCharsets.UTF_8);
+
+    private final DisposableServer server;
+
+    StubBroker(Duration latency) {
+        Mono<byte[]> response = latency.isZero() ? Mono.just(RESPONSE) : Mono.just(RESPONSE).delayElement(latency);
+
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .post("/query", (request, reply) -> reply.header("Content-Type", "application/json").sendByteArray(response))
+                        .post("/query/sql", (request, reply) -> reply.header("Content-Type", "application/json").sendByteArray(response)))
+                .bindNow();
+    }
+
+    String getUrl() {
+        return "http://localhost:%d".formatted(server.port());
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,16 @@
+package org.apache.pinot.tc.loadgen;
+
+import org.apache.pinot.tc.BrokerService;
+
+interface Workload {
+
+    void run(BrokerService brokerService, QueryMix mix, LatencyRecorder recorder, long deadlineNanos);
+
+    static Workload of(LoadGeneratorOptions options) {
+        return switch (options.getModel()) {
+            case "closed" -> new ClosedModelWorkload(options.getConcurrency());
+            case "open" -> new OpenModelWorkload(options.getRate());
+            default -> throw new IllegalArgumentException("unknown model %s, expected open or closed".formatted(options.getModel()));
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package org.apache.pinot.tc;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class BatchIngestConfiguration {
@@ -9,16 +10,33 @@ public class BatchIngestConfiguration {
     @JsonProperty("recordReader.prop.delimiter")
     private final String delimiter;
 
+    @JsonProperty("segmentNameGenerator.configs.segment.name.postfix")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String segmentNamePostfix;
+
     public String getInputFormat() {
         return inputFormat;
     }
 
     public BatchIngestConfiguration(String inputFormat, String delimiter) {
+        this(inputFormat, delimiter, null);
+    }
+
+    public BatchIngestConfiguration(String inputFormat, String delimiter, String segmentNamePostfix) {
         this.inputFormat = inputFormat;
         this.delimiter = delimiter;
+        this.segmentNamePostfix = segmentNamePostfix;
     }
 
     public String getDelimiter() {
         return delimiter;
     }
+
+    public String getSegmentNamePostfix() {
+        return segmentNamePostfix;
+    }
+
+    public BatchIngestConfiguration withSegmentNamePostfix(String segmentNamePostfix) {
+        return new BatchIngestConfiguration(inputFormat, delimiter, segmentNamePostfix);
+    }
 }
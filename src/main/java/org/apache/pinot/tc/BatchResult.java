@@ -0,0 +1,58 @@
+package org.apache.pinot.tc;
+
+import com.google.common.base.MoreObjects;
+import org.apache.pinot.tc.api.QueryResponse;
+
+import java.time.Duration;
+
+public class BatchResult {
+
+    private final int index;
+    private final String query;
+    private final QueryResponse response;
+    private final Throwable error;
+    private final Duration elapsed;
+
+    public BatchResult(int index, String query, QueryResponse response, Throwable error, Duration elapsed) {
+        this.index = index;
+        this.query = query;
+        this.response = response;
+        this.error = error;
+        this.elapsed = elapsed;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public QueryResponse getResponse() {
+        return response;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("index", index)
+                .add("query", query)
+                .add("response", response)
+                .add("error", error)
+                .add("elapsed", elapsed)
+                .toString();
+    }
+}
@@ -1,61 +1,446 @@
 package org.apache.pinot.tc;
 
+import com.google.common.io.Closeables;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.apache.pinot.tc.api.ArrowResponseReader;
+import org.apache.pinot.tc.api.CursorResponse;
+import org.apache.pinot.tc.api.PinotHttpException;
 import org.apache.pinot.tc.api.QueryException;
+import org.apache.pinot.tc.api.QueryOptions;
 import org.apache.pinot.tc.api.QueryResponse;
+import org.apache.pinot.tc.api.ResultTable;
 import org.apache.pinot.tc.api.SqlQuery;
+import org.apache.pinot.tc.cache.QueryCoalescer;
+import org.apache.pinot.tc.cache.QueryResultCache;
+import org.apache.pinot.tc.metrics.PinotClientMetrics;
+import org.apache.pinot.tc.routing.BrokerEndpoint;
+import org.apache.pinot.tc.routing.BrokerRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import tools.jackson.core.JacksonException;
 import tools.jackson.databind.json.JsonMapper;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
 @Service
-public class BrokerService {
+public class BrokerService implements DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(BrokerService.class);
 
+    private static final int RESPONSE_BUFFER_DEMAND = 16;
+
+    private static final NettyDataBufferFactory PREPARED_BUFFER_FACTORY = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+    static final MediaType ARROW_STREAM = new MediaType("application", "vnd.apache.arrow.stream");
+
+    // headroom past the broker's own timeoutMs so its partial response or timeout exception still reaches us
+    private static final Duration TIMEOUT_GRACE = Duration.ofMillis(250);
+
     private final WebClient client;
     private final JsonMapper jsonMapper;
+    private final BrokerRouter brokerRouter;
+    private final QueryResultCache queryResultCache;
+    private final QueryCoalescer queryCoalescer;
+    private final PinotClientMetrics metrics;
+    private final Scheduler blockingScheduler;
+    private final QueryOptions defaultOptions;
+    private final int pagePrefetch;
+    private final long pageMaxRows;
+    private final int batchParallelism;
+    private final ArrowResponseReader arrowReader;
 
-    public BrokerService(@Qualifier("broker_client") WebClient client, JsonMapper jsonMapper) {
+    public BrokerService(@Qualifier("broker_client") WebClient client, JsonMapper jsonMapper, BrokerRouter brokerRouter,
+                         QueryResultCache queryResultCache, QueryCoalescer queryCoalescer, PinotClientMetrics metrics,
+                         @Qualifier("pinot_blocking_scheduler") Scheduler blockingScheduler, Environment environment) {
         this.client = client;
         this.jsonMapper = jsonMapper;
+        this.brokerRouter = brokerRouter;
+        this.queryResultCache = queryResultCache;
+        this.queryCoalescer = queryCoalescer;
+        this.metrics = metrics;
+        this.blockingScheduler = blockingScheduler;
+
+        Duration queryTimeout = environment.getProperty("pinot.broker.query-timeout", Duration.class);
+        this.defaultOptions = queryTimeout != null ? QueryOptions.timeout(queryTimeout) : QueryOptions.none();
+        this.pagePrefetch = environment.getProperty("pinot.broker.cursor.prefetch", Integer.class, 2);
+        this.pageMaxRows = environment.getProperty("pinot.broker.cursor.max-rows", Long.class, 1_000_000L);
+        this.batchParallelism = environment.getProperty("pinot.broker.batch.parallelism", Integer.class, 8);
+
+        // only load Arrow (an optional dependency) and allocate its memory when the binary format is asked for
+        boolean arrow = "arrow".equalsIgnoreCase(environment.getProperty("pinot.broker.response-format", "json"));
+        this.arrowReader = arrow ? new ArrowResponseReader() : null;
+
+        if (arrow) {
+            log.info("requesting Arrow query responses, falling back to JSON when the broker doesn't send them");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (arrowReader != null) {
+            arrowReader.close();
+        }
     }
 
     public QueryResponse executeQuery(String query) throws JacksonException {
-        return executeMultiStageQuery(query);
+        return executeQueryAsync(query).block();
+    }
+
+    public QueryResponse executeQuery(String query, QueryOptions options) throws JacksonException {
+        return executeQueryAsync(query, options).block();
+    }
+
+    public QueryResponse executeQuery(PreparedPinotQuery query, PreparedPinotQuery.Parameters parameters) {
+        return executeQueryAsync(query, parameters).block();
     }
 
     public QueryResponse executeMultiStageQuery(String query) throws JacksonException {
-        return getQueryResponse(query, "query");
+        return executeMultiStageQueryAsync(query).block();
     }
 
     public QueryResponse executeSingleStageQuery(String query) throws JacksonException {
-        return getQueryResponse(query, "query/sql");
+        return executeSingleStageQueryAsync(query).block();
+    }
+
+    public Mono<QueryResponse> executeQueryAsync(String query) {
+        return executeMultiStageQueryAsync(query);
+    }
+
+    public Mono<QueryResponse> executeQueryAsync(String query, QueryOptions options) {
+        return executeMultiStageQueryAsync(query, options);
+    }
+
+    // prepared queries skip the cache and coalescer, both key on the rendered SQL string this path never builds;
+    // their options are fixed when the query is prepared, pinot.broker.query-timeout applies when they have no timeout
+    public Mono<QueryResponse> executeQueryAsync(PreparedPinotQuery query, PreparedPinotQuery.Parameters parameters) {
+        PreparedPinotQuery effective = query.withDefaultTimeout(defaultOptions.getTimeout());
+
+        return withTimeout(fetchQueryResponse("query", effective.getTable(), preparedBody("query", effective, parameters)), effective.getOptions());
+    }
+
+    public Mono<QueryResponse> executeMultiStageQueryAsync(String query) {
+        return executeMultiStageQueryAsync(query, defaultOptions);
+    }
+
+    public Mono<QueryResponse> executeMultiStageQueryAsync(String query, QueryOptions options) {
+        return getQueryResponse(query, "query", options);
+    }
+
+    public Mono<QueryResponse> executeSingleStageQueryAsync(String query) {
+        return executeSingleStageQueryAsync(query, defaultOptions);
+    }
+
+    public Mono<QueryResponse> executeSingleStageQueryAsync(String query, QueryOptions options) {
+        return getQueryResponse(query, "query/sql", options);
+    }
+
+    public List<QueryResponse> executeBatch(List<String> queries) {
+        return executeBatchAsync(queries).block();
+    }
+
+    // responses in query order; the first failure cancels the rest of the batch. Each query is routed on its own,
+    // so the batch spreads across brokers and takes about as long as its slowest query
+    public Mono<List<QueryResponse>> executeBatchAsync(List<String> queries) {
+        return Flux.fromIterable(queries)
+                .flatMapSequential(query -> getQueryResponse(query, "query", defaultOptions), batchParallelism)
+                .collectList();
+    }
+
+    // results in completion order and a failed query doesn't stop the others, sort by getIndex() for query order
+    public Flux<BatchResult> streamBatch(List<String> queries) {
+        return Flux.range(0, queries.size())
+                .flatMap(index -> {
+                    String query = queries.get(index);
+                    long start = System.nanoTime();
+
+                    return getQueryResponse(query, "query", defaultOptions)
+                            .map(response -> new BatchResult(index, query, response, null, Duration.ofNanos(System.nanoTime() - start)))
+                            .onErrorResume(e -> Mono.just(new BatchResult(index, query, null, e, Duration.ofNanos(System.nanoTime() - start))));
+                }, batchParallelism);
+    }
+
+    public Flux<Object[]> streamQuery(String query) throws JacksonException {
+        return streamMultiStageQuery(query);
+    }
+
+    public Flux<Object[]> streamMultiStageQuery(String query) throws JacksonException {
+        return streamQueryRows(query, "query");
+    }
+
+    public Flux<Object[]> streamSingleStageQuery(String query) throws JacksonException {
+        return streamQueryRows(query, "query/sql");
+    }
+
+    // pages come from the broker's response store when it supports cursors, otherwise from generated LIMIT/OFFSET
+    // queries; either way up to pagePrefetch pages are fetched ahead of the consumer and memory stays flat. Both
+    // paths stop at the query's own LIMIT, or pinot.broker.cursor.max-rows without one
+    public Flux<ResultTable> fetchPages(String query, int pageSize) {
+        PagedQuery paged = PagedQuery.parse(query, pageMaxRows);
+
+        return brokerRouter.executeMany(endpoint -> openCursor(endpoint, paged.bounded(), pageSize)
+                .flatMapMany(first -> cursorPages(endpoint, first, pageSize))
+                .switchIfEmpty(Flux.defer(() -> offsetPages(endpoint, paged, pageSize))));
+    }
+
+    // close the stream to cancel the remaining page requests
+    public Stream<ResultTable> fetchPagesAsStream(String query, int pageSize) {
+        return fetchPages(query, pageSize).toStream(1);
     }
 
-    private QueryResponse getQueryResponse(String query, String path) throws JacksonException {
-        String response = client.post()
-                .uri(uriBuilder -> uriBuilder.path(path).build())
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(jsonMapper.writeValueAsString(new SqlQuery(query)))
+    public long awaitRowCount(String table, long rows, Duration timeout) {
+        return awaitRowCountAsync(table, rows, timeout).block();
+    }
+
+    // goes straight to the broker, the cache and coalescer would otherwise hand back a stale count
+    public Mono<Long> awaitRowCountAsync(String table, long rows, Duration timeout) {
+        String query = "select count(*) from " + table;
+
+        return Polling.await("%s to have %d rows".formatted(table, rows),
+                () -> withTimeout(fetchQueryResponse(query, "query", defaultOptions), defaultOptions)
+                        .map(response -> response.getResultTable() != null && response.getResultTable().getRowCount() > 0
+                                ? response.getResultTable().getLong(0, 0)
+                                : 0L),
+                count -> count >= rows,
+                timeout);
+    }
+
+    private Mono<QueryResponse> getQueryResponse(String query, String path, QueryOptions options) {
+        // the timeout is part of the key: a shared request sends its own timeoutMs to the broker, which must not cut
+        // short a caller that asked for longer
+        String queryOptions = options.toQueryOptionsString();
+        String key = queryOptions == null ? path : path + "?" + queryOptions;
+
+        return withTimeout(queryResultCache.get(query, key, () -> queryCoalescer.execute(query, key, () -> fetchQueryResponse(query, path, options))), options);
+    }
+
+    // applied per caller outside the cache and coalescer, so joining a request already in flight doesn't shorten
+    // the caller's own deadline
+    private static Mono<QueryResponse> withTimeout(Mono<QueryResponse> response, QueryOptions options) {
+        return options.getTimeout() == null ? response : response.timeout(options.getTimeout().plus(TIMEOUT_GRACE));
+    }
+
+    private Mono<QueryResponse> fetchQueryResponse(String query, String path, QueryOptions options) {
+        return fetchQueryResponse(path, SqlQuery.tableName(query), jsonBody(path, query, options));
+    }
+
+    private Mono<QueryResponse> fetchQueryResponse(String path, String table, QueryBody body) {
+        Mono<QueryResponse> response = arrowReader == null
+                ? brokerRouter.execute(endpoint -> decodeStreaming(post(endpoint.resolve(path), body), path))
+                : brokerRouter.execute(endpoint -> postNegotiated(endpoint.resolve(path), body, path));
+
+        return metrics.timed(path, response)
+                .doOnNext(queryResponse -> {
+                    log.debug("query response: {}", queryResponse);
+
+                    metrics.recordQueryStats(table, queryResponse);
+
+                    if (queryResponse.getExceptions() != null && !queryResponse.getExceptions().isEmpty()) {
+                        for (QueryException ex : queryResponse.getExceptions()) {
+                            log.error(ex.getMessage(), ex);
+                        }
+                    }
+                });
+    }
+
+    // empty when the broker has no response store, which sends fetchPages down the LIMIT/OFFSET path; any other
+    // error, a bad query included, fails fetchPages rather than being sent again
+    private Mono<CursorResponse> openCursor(BrokerEndpoint endpoint, String query, int pageSize) {
+        URI uri = endpoint.resolve("query/sql?getCursor=true&numRows=" + pageSize);
+
+        return metrics.timed("query/sql", DataBufferUtils.join(postQuery(uri, "query/sql", query, defaultOptions)))
+                .map(buffer -> decode(buffer, "query/sql", CursorResponse.class))
+                .onErrorResume(BrokerService::isCursorUnsupported, e -> {
+                    log.debug("cursor not supported by {}, paging with LIMIT/OFFSET: {}", endpoint.getBaseUrl(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private static boolean isCursorUnsupported(Throwable e) {
+        if (!(e instanceof PinotHttpException http)) {
+            return false;
+        }
+
+        return switch (http.getStatusCode()) {
+            case 404, 405, 501 -> true;
+            default -> {
+                String body = http.getResponseBody() == null ? "" : http.getResponseBody().toLowerCase(Locale.ROOT);
+                yield body.contains("responsestore") || body.contains("cursor");
+            }
+        };
+    }
+
+    private Flux<ResultTable> cursorPages(BrokerEndpoint endpoint, CursorResponse first, int pageSize) {
+        if (first.getRequestId() == null || first.getBrokerHost() == null) {
+            // the broker ignored getCursor and already sent every row
+            return checkExceptions(first).mapNotNull(QueryResponse::getResultTable).flux();
+        }
+
+        String requestId = first.getRequestId();
+        long total = first.getNumRowsResultSet();
+
+        log.debug("opened cursor {} over {} rows on {}", requestId, total, endpoint.getBaseUrl());
+
+        Flux<ResultTable> remaining = Flux.fromStream(() -> LongStream.iterate(pageSize, offset -> offset < total, offset -> offset + pageSize).boxed())
+                .flatMapSequential(offset -> fetchCursorPage(endpoint, requestId, offset, pageSize), pagePrefetch);
+
+        return Flux.concat(checkExceptions(first).mapNotNull(QueryResponse::getResultTable), remaining)
+                .doFinally(signal -> deleteCursor(endpoint, requestId));
+    }
+
+    private Mono<ResultTable> fetchCursorPage(BrokerEndpoint endpoint, String requestId, long offset, int pageSize) {
+        Flux<DataBuffer> body = Flux.defer(() -> client.get()
+                .uri(endpoint.resolve("responseStore/%s/results?offset=%d&numRows=%d".formatted(requestId, offset, pageSize)))
                 .retrieve()
-                .bodyToMono(String.class)
-                .block();
+                .bodyToFlux(DataBuffer.class));
 
-        log.debug("raw query results: \n\n{}\n", response);
+        return metrics.timed("responseStore", DataBufferUtils.join(body))
+                .map(buffer -> decode(buffer, "responseStore", CursorResponse.class))
+                .flatMap(BrokerService::checkExceptions)
+                .mapNotNull(QueryResponse::getResultTable);
+    }
 
-        QueryResponse queryResponse = jsonMapper.readValue(response, QueryResponse.class);
+    private void deleteCursor(BrokerEndpoint endpoint, String requestId) {
+        client.delete()
+                .uri(endpoint.resolve("responseStore/" + requestId))
+                .retrieve()
+                .toBodilessEntity()
+                .subscribe(response -> log.debug("deleted cursor {}", requestId),
+                        e -> log.debug("could not delete cursor {}, it will expire on its own: {}", requestId, e.getMessage()));
+    }
+
+    // without ORDER BY the broker is free to return rows in a different order for each page
+    private Flux<ResultTable> offsetPages(BrokerEndpoint endpoint, PagedQuery query, int pageSize) {
+        long maxRows = query.getMaxRows();
+
+        return Flux.fromStream(() -> LongStream.iterate(0, offset -> offset < maxRows, offset -> offset + pageSize).boxed())
+                .flatMapSequential(offset -> fetchOffsetPage(endpoint, query.page(offset, Math.min(pageSize, maxRows - offset))), pagePrefetch)
+                .takeUntil(response -> response.getResultTable() == null || response.getResultTable().getRowCount() < pageSize)
+                .mapNotNull(QueryResponse::getResultTable)
+                .filter(table -> table.getRowCount() > 0);
+    }
 
-        if (queryResponse != null && queryResponse.getExceptions() != null && !queryResponse.getExceptions().isEmpty()) {
-            for (QueryException ex : queryResponse.getExceptions()) {
-                log.error(ex.getMessage(), ex);
+    private Mono<QueryResponse> fetchOffsetPage(BrokerEndpoint endpoint, String query) {
+        return metrics.timed("query/sql", DataBufferUtils.join(postQuery(endpoint, query, "query/sql", defaultOptions)))
+                .map(buffer -> decode(buffer, "query/sql", QueryResponse.class))
+                .flatMap(BrokerService::checkExceptions);
+    }
+
+    // a page that failed on the broker must fail the export, silently stopping would truncate it
+    private static <T extends QueryResponse> Mono<T> checkExceptions(T response) {
+        if (response.getExceptions() != null && !response.getExceptions().isEmpty()) {
+            return Mono.error(new IllegalStateException(response.getExceptions().getFirst().getMessage()));
+        }
+
+        return Mono.just(response);
+    }
+
+    private <T> T decode(DataBuffer buffer, String path, Class<T> type) {
+        return metrics.decode(path, () -> {
+            try {
+                return jsonMapper.readValue(buffer.asInputStream(), type);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        });
+    }
+
+    private Mono<QueryResponse> decodeStreaming(Flux<DataBuffer> body, String path) {
+        return decodeStreaming(body, path, in -> jsonMapper.readValue(in, QueryResponse.class));
+    }
+
+    // parses while the body is still arriving, off the event loop, so the whole response is never held in memory;
+    // closing the stream on cancel releases the blocked thread and the connection
+    private Mono<QueryResponse> decodeStreaming(Flux<DataBuffer> body, String path, Function<InputStream, QueryResponse> decoder) {
+        return Mono.using(() -> DataBufferUtils.subscriberInputStream(body, RESPONSE_BUFFER_DEMAND),
+                        in -> Mono.fromCallable(() -> metrics.decode(path, () -> decoder.apply(in))),
+                        Closeables::closeQuietly)
+                .subscribeOn(blockingScheduler)
+                .onErrorMap(BrokerService::transportError);
+    }
+
+    // the input stream hands upstream errors to the parser, which wraps them; routing needs the original to tell a
+    // broker failure from a bad query
+    private static Throwable transportError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PinotHttpException || cause instanceof WebClientException) {
+                return cause;
             }
         }
 
-        return queryResponse;
+        return e;
+    }
+
+    private Flux<Object[]> streamQueryRows(String query, String path) {
+        return metrics.timed(path, brokerRouter.executeMany(endpoint -> Flux.using(
+                        () -> new ResultTableReader(jsonMapper, DataBufferUtils.subscriberInputStream(postQuery(endpoint, query, path, defaultOptions), RESPONSE_BUFFER_DEMAND)),
+                        reader -> Flux.fromIterable(() -> reader),
+                        ResultTableReader::close)
+                .subscribeOn(blockingScheduler)));
+    }
+
+    private Flux<DataBuffer> postQuery(BrokerEndpoint endpoint, String query, String path, QueryOptions options) {
+        return postQuery(endpoint.resolve(path), path, query, options);
+    }
+
+    private Flux<DataBuffer> postQuery(URI uri, String path, String query, QueryOptions options) {
+        return post(uri, jsonBody(path, query, options));
+    }
+
+    private Flux<DataBuffer> post(URI uri, QueryBody body) {
+        return Flux.defer(() -> body.writeTo(client.post().uri(uri).contentType(MediaType.APPLICATION_JSON))
+                .retrieve()
+                .bodyToFlux(DataBuffer.class));
+    }
+
+    // asks for Arrow but accepts JSON, the content type of the answer decides the decoder; either way the body is
+    // decoded as it streams in on the blocking scheduler, never on the event loop
+    private Mono<QueryResponse> postNegotiated(URI uri, QueryBody body, String path) {
+        return Mono.defer(() -> body.writeTo(client.post().uri(uri).contentType(MediaType.APPLICATION_JSON))
+                .accept(ARROW_STREAM, MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> {
+                    boolean arrow = response.headers().contentType()
+                            .map(ARROW_STREAM::isCompatibleWith)
+                            .orElse(false);
+
+                    Flux<DataBuffer> responseBody = response.bodyToFlux(DataBuffer.class);
+
+                    return arrow
+                            ? decodeStreaming(responseBody, path, arrowReader::read)
+                            : decodeStreaming(responseBody, path);
+                }));
+    }
+
+    private QueryBody jsonBody(String path, String query, QueryOptions options) {
+        return request -> request.bodyValue(metrics.encode(path, () -> jsonMapper.writeValueAsString(new SqlQuery(query, options.toQueryOptionsString()))));
+    }
+
+    // rendered when the request is written, so a retry or hedge renders a fresh buffer; Netty releases it once sent
+    private QueryBody preparedBody(String path, PreparedPinotQuery query, PreparedPinotQuery.Parameters parameters) {
+        return request -> request.body(Mono.<DataBuffer>fromSupplier(() -> metrics.encode(path,
+                () -> PREPARED_BUFFER_FACTORY.wrap(query.render(parameters, PREPARED_BUFFER_FACTORY.getByteBufAllocator())))), DataBuffer.class);
+    }
+
+    private interface QueryBody {
+        WebClient.RequestHeadersSpec<?> writeTo(WebClient.RequestBodySpec request);
     }
 }
@@ -1,38 +1,72 @@
 package org.apache.pinot.tc;
 
+import io.netty.buffer.PooledByteBufAllocator;
+import org.apache.pinot.tc.api.PinotHttpException;
 import org.apache.pinot.tc.api.PostResponse;
+import org.apache.pinot.tc.cache.QueryResultCache;
+import org.apache.pinot.tc.metrics.PinotClientMetrics;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import tools.jackson.core.JacksonException;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.json.JsonMapper;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class ControllerService {
 
     private static final Logger log = LoggerFactory.getLogger(ControllerService.class);
 
+    private static final Set<String> TERMINAL_TASK_STATES = Set.of("COMPLETED", "FAILED", "TIMED_OUT", "ABORTED", "STOPPED");
+
+    private static final NettyDataBufferFactory UPLOAD_BUFFER_FACTORY = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
     private final WebClient client;
     private final JsonMapper jsonMapper;
     private final Environment environment;
-
-    public ControllerService(@Qualifier("controller_client") WebClient client, JsonMapper jsonMapper, Environment environment) {
+    private final PinotClientMetrics metrics;
+    private final QueryResultCache queryResultCache;
+    private final Scheduler blockingScheduler;
+    private final int uploadBufferSize;
+    private final Set<String> createdTables = ConcurrentHashMap.newKeySet();
+    private final Set<String> createdSchemas = ConcurrentHashMap.newKeySet();
+
+    public ControllerService(@Qualifier("controller_client") WebClient client, JsonMapper jsonMapper, Environment environment, PinotClientMetrics metrics,
+                             QueryResultCache queryResultCache, @Qualifier("pinot_blocking_scheduler") Scheduler blockingScheduler) {
         this.client = client;
         this.jsonMapper = jsonMapper;
         this.environment = environment;
+        this.metrics = metrics;
+        this.queryResultCache = queryResultCache;
+        this.blockingScheduler = blockingScheduler;
+        this.uploadBufferSize = Math.toIntExact(environment.getProperty("pinot.controller.upload-buffer-size", DataSize.class, DataSize.ofKilobytes(256)).toBytes());
     }
 
     public PostResponse createSchema(Resource resource) throws IOException, JacksonException {
@@ -41,19 +75,57 @@ public class ControllerService {
     }
 
     public PostResponse createSchema(String schemaConfig) throws JacksonException {
+        return createSchemaAsync(schemaConfig).block();
+    }
+
+    public Mono<PostResponse> createSchemaAsync(Resource resource) {
+        return readResource(resource).flatMap(this::createSchemaAsync);
+    }
 
-        String response = client.post()
-                .uri(uriBuilder -> uriBuilder.path("schemas").build())
+    public Mono<PostResponse> createSchemaAsync(String schemaConfig) {
+        return createSchemaAsync(schemaConfig, true);
+    }
+
+    // without override an existing schema is a 409 instead of being replaced
+    public Mono<PostResponse> createSchemaAsync(String schemaConfig, boolean override) {
+
+        return metrics.timed("schemas", client.post()
+                .uri(uriBuilder -> uriBuilder.path("schemas").queryParam("override", override).build())
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(schemaConfig)
                 .retrieve()
-                .bodyToMono(String.class)
-                .block();
+                .bodyToMono(String.class))
+                .map(response -> {
+                    log.debug("raw create schema response: \n\n{}\n", response);
 
-        log.debug("raw create schema response: \n\n{}\n", response);
+                    return metrics.decode("schemas", () -> jsonMapper.readValue(response, PostResponse.class));
+                })
+                .doOnNext(response -> createdSchemas.add(jsonMapper.readTree(schemaConfig).get("schemaName").asString()));
+
+    }
 
-        return jsonMapper.readValue(response, PostResponse.class);
+    public Mono<PostResponse> updateSchemaAsync(String schemaName, String schemaConfig) {
 
+        return metrics.timed("schemas", client.put()
+                .uri(uriBuilder -> uriBuilder.path("schemas/{schemaName}").build(schemaName))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(schemaConfig)
+                .retrieve()
+                .bodyToMono(String.class))
+                .map(response -> {
+                    log.debug("raw update schema response: \n\n{}\n", response);
+
+                    return metrics.decode("schemas", () -> jsonMapper.readValue(response, PostResponse.class));
+                });
+    }
+
+    public Mono<Boolean> schemaExistsAsync(String schemaName) {
+        return metrics.timed("schemas", client.get()
+                        .uri(uriBuilder -> uriBuilder.path("schemas/{schemaName}").build(schemaName))
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .map(response -> true)
+                .onErrorResume(ControllerService::isNotFound, e -> Mono.just(false));
     }
 
     public PostResponse createTable(Resource resource) throws IOException, JacksonException {
@@ -62,64 +134,278 @@ public class ControllerService {
     }
 
     public PostResponse createTable(String tableConfig) throws JacksonException {
+        return createTableAsync(tableConfig).block();
+    }
+
+    public Mono<PostResponse> createTableAsync(Resource resource) {
+        return readResource(resource).flatMap(this::createTableAsync);
+    }
+
+    public Mono<PostResponse> createTableAsync(String tableConfig) {
 
-        String response = client.post()
+        return metrics.timed("tables", client.post()
                 .uri(uriBuilder -> uriBuilder.path("tables").build())
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(tableConfig)
                 .retrieve()
-                .bodyToMono(String.class)
-                .block();
+                .bodyToMono(String.class))
+                .map(response -> {
+                    log.debug("raw create table response: \n\n{}\n", response);
+
+                    return metrics.decode("tables", () -> jsonMapper.readValue(response, PostResponse.class));
+                })
+                .doOnNext(response -> createdTables.add(tableNameWithType(jsonMapper.readTree(tableConfig))));
+    }
+
+    public Mono<PostResponse> updateTableAsync(String tableName, String tableConfig) {
+
+        return metrics.timed("tables", client.put()
+                .uri(uriBuilder -> uriBuilder.path("tables/{tableName}").build(tableName))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(tableConfig)
+                .retrieve()
+                .bodyToMono(String.class))
+                .map(response -> {
+                    log.debug("raw update table response: \n\n{}\n", response);
+
+                    return metrics.decode("tables", () -> jsonMapper.readValue(response, PostResponse.class));
+                })
+                .doOnNext(response -> queryResultCache.invalidate(tableName));
+    }
+
+    // the controller answers an unknown table with {} or a 404 depending on the version
+    public Mono<Boolean> tableExistsAsync(String tableNameWithType) {
+        int separator = tableNameWithType.lastIndexOf('_');
+        String tableName = tableNameWithType.substring(0, separator);
+        String tableType = tableNameWithType.substring(separator + 1);
+
+        return metrics.timed("tables", client.get()
+                        .uri(uriBuilder -> uriBuilder.path("tables/{tableName}").queryParam("type", tableType.toLowerCase(Locale.ROOT)).build(tableName))
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .map(response -> !jsonMapper.readTree(response).isEmpty())
+                .onErrorResume(ControllerService::isNotFound, e -> Mono.just(false));
+    }
+
+    public PostResponse deleteTable(String tableNameWithType) {
+        return deleteTableAsync(tableNameWithType).block();
+    }
+
+    public Mono<PostResponse> deleteTableAsync(String tableNameWithType) {
+        int separator = tableNameWithType.lastIndexOf('_');
+        String tableName = tableNameWithType.substring(0, separator);
+        String tableType = tableNameWithType.substring(separator + 1);
+
+        return metrics.timed("tables", client.delete()
+                .uri(uriBuilder -> uriBuilder.path("tables/{tableName}").queryParam("type", tableType.toLowerCase(Locale.ROOT)).build(tableName))
+                .retrieve()
+                .bodyToMono(String.class))
+                .map(response -> {
+                    log.debug("raw delete table response: \n\n{}\n", response);
+
+                    return metrics.decode("tables", () -> jsonMapper.readValue(response, PostResponse.class));
+                })
+                .doOnNext(response -> {
+                    createdTables.remove(tableNameWithType);
+                    queryResultCache.invalidate(tableName);
+                });
+    }
+
+    public PostResponse deleteSchema(String schemaName) {
+        return deleteSchemaAsync(schemaName).block();
+    }
+
+    public Mono<PostResponse> deleteSchemaAsync(String schemaName) {
+
+        return metrics.timed("schemas", client.delete()
+                .uri(uriBuilder -> uriBuilder.path("schemas/{schemaName}").build(schemaName))
+                .retrieve()
+                .bodyToMono(String.class))
+                .map(response -> {
+                    log.debug("raw delete schema response: \n\n{}\n", response);
+
+                    return metrics.decode("schemas", () -> jsonMapper.readValue(response, PostResponse.class));
+                })
+                .doOnNext(response -> createdSchemas.remove(schemaName));
+    }
 
-        log.debug("raw create table response: \n\n{}\n", response);
+    public void reset() {
+        resetAsync().block();
+    }
 
-        return jsonMapper.readValue(response, PostResponse.class);
+    // drops every table and schema created through this service, tables first since a schema can't be deleted
+    // while a table still uses it
+    public Mono<Void> resetAsync() {
+        return Flux.defer(() -> Flux.fromIterable(List.copyOf(createdTables)))
+                .flatMap(this::deleteTableAsync)
+                .thenMany(Flux.defer(() -> Flux.fromIterable(List.copyOf(createdSchemas))))
+                .flatMap(this::deleteSchemaAsync)
+                .doOnComplete(() -> log.info("reset controller state"))
+                .then();
     }
 
     public String scheduleTask(String taskName, String tableName) throws JacksonException {
+        return scheduleTaskAsync(taskName, tableName).block();
+    }
 
-        String response = client.post()
+    public Mono<String> scheduleTaskAsync(String taskName, String tableName) {
+
+        return metrics.timed("tasks/schedule", client.post()
                 .uri(uriBuilder -> uriBuilder.path("tasks/schedule").queryParam("taskType", taskName).queryParam("tableName", tableName).build())
                 .contentType(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(String.class)
-                .block();
+                .bodyToMono(String.class))
+                .map(response -> {
+                    log.debug("raw schedule task response: \n\n{}\n", response);
 
-        log.debug("raw schedule task response: \n\n{}\n", response);
+                    JsonNode jsonNode = metrics.decode("tasks/schedule", () -> jsonMapper.readTree(response));
 
-        JsonNode jsonNode = jsonMapper.readTree(response);
+                    return jsonNode.get(taskName).asString();
+                });
 
-        return jsonNode.get(taskName).asString();
+    }
 
+    public void awaitTableReady(String tableNameWithType, int minSegments, Duration timeout) {
+        awaitTableReadyAsync(tableNameWithType, minSegments, timeout).block();
+    }
+
+    // ready once the external view has at least minSegments segments whose replicas are all ONLINE
+    public Mono<Integer> awaitTableReadyAsync(String tableNameWithType, int minSegments, Duration timeout) {
+        int separator = tableNameWithType.lastIndexOf('_');
+        String tableName = tableNameWithType.substring(0, separator);
+        String tableType = tableNameWithType.substring(separator + 1).toUpperCase(Locale.ROOT);
+
+        return Polling.await("%s to have %d online segments".formatted(tableNameWithType, minSegments),
+                () -> metrics.timed("tables/externalview", client.get()
+                                .uri(uriBuilder -> uriBuilder.path("tables/{tableName}/externalview").build(tableName))
+                                .retrieve()
+                                .bodyToMono(String.class))
+                        .map(response -> onlineSegments(jsonMapper.readTree(response).path(tableType))),
+                onlineSegments -> onlineSegments >= minSegments,
+                timeout);
+    }
+
+    public String awaitTaskComplete(String taskName, Duration timeout) {
+        return awaitTaskCompleteAsync(taskName, timeout).block();
+    }
+
+    public Mono<String> awaitTaskCompleteAsync(String taskName, Duration timeout) {
+        return Polling.await("task %s to finish".formatted(taskName),
+                        () -> metrics.timed("tasks/task/state", client.get()
+                                        .uri(uriBuilder -> uriBuilder.path("tasks/task/{taskName}/state").build(taskName))
+                                        .retrieve()
+                                        .bodyToMono(String.class))
+                                .map(response -> jsonMapper.readTree(response).asString()),
+                        TERMINAL_TASK_STATES::contains,
+                        timeout)
+                .flatMap(state -> "COMPLETED".equals(state)
+                        ? Mono.just(state)
+                        : Mono.error(new IllegalStateException("task %s finished as %s".formatted(taskName, state))));
     }
 
     public PostResponse ingestFromFile(String tableName, BatchIngestConfiguration configuration, Resource resource) throws IOException, JacksonException {
+        return ingestFromFileAsync(tableName, configuration, resource).block();
+    }
+
+    public Mono<PostResponse> ingestFromFileAsync(String tableName, BatchIngestConfiguration configuration, Resource resource) {
+        // file backed resources are read through a FileChannel straight into pooled direct buffers, which netty
+        // writes to the socket and releases, so the file is never copied onto the heap
+        return ingestAsync(tableName, configuration, resource.getFilename(), DataBufferUtils.read(resource, UPLOAD_BUFFER_FACTORY, uploadBufferSize));
+    }
+
+    public Mono<PostResponse> ingestAsync(String tableName, BatchIngestConfiguration configuration, String fileName, Publisher<DataBuffer> content) {
+
+        return Mono.defer(() -> {
+            String configurationAsString = metrics.encode("ingestFromFile", () -> jsonMapper.writeValueAsString(configuration));
 
-        String configurationAsString = jsonMapper.writeValueAsString(configuration);
+            log.debug("batch configuration as string: {}", configurationAsString);
 
-        log.debug("batch configuration as string: {}", configurationAsString);
+            UriComponents uriComponents = UriComponentsBuilder.fromUriString(environment.getProperty("pinot.controller.url") + "/ingestFromFile")
+                    .queryParam("tableNameWithType", tableName)
+                    .queryParam("batchConfigMapStr", configurationAsString)
+                    .build();
 
-        MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
-        bodyBuilder.part("file", resource);
+            return postFile("ingestFromFile", uriComponents, fileName, content);
+        }).doOnNext(response -> queryResultCache.invalidate(rawTableName(tableName)));
+
+    }
 
-        UriComponents uriComponents = UriComponentsBuilder.fromUriString(environment.getProperty("pinot.controller.url") + "/ingestFromFile")
-                .queryParam("tableNameWithType", tableName)
-                .queryParam("batchConfigMapStr", configurationAsString)
+    public PostResponse uploadSegment(String tableName, String tableType, Path segmentTarFile) {
+        return uploadSegmentAsync(tableName, tableType, segmentTarFile).block();
+    }
+
+    public Mono<PostResponse> uploadSegmentAsync(String tableName, String tableType, Path segmentTarFile) {
+
+        UriComponents uriComponents = UriComponentsBuilder.fromUriString(environment.getProperty("pinot.controller.url") + "/v2/segments")
+                .queryParam("tableName", tableName)
+                .queryParam("tableType", tableType)
                 .build();
 
-        log.debug("uri: {}", uriComponents);
+        return postFile("v2/segments", uriComponents, segmentTarFile.getFileName().toString(),
+                DataBufferUtils.read(new FileSystemResource(segmentTarFile), UPLOAD_BUFFER_FACTORY, uploadBufferSize))
+                .doOnNext(response -> queryResultCache.invalidate(rawTableName(tableName)));
+    }
 
-        String response = client.post()
-                .uri(uriComponents.toUri())
-                .contentType(MediaType.MULTIPART_FORM_DATA)
-                .body(BodyInserters.fromMultipartData(bodyBuilder.build()))
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
+    private Mono<PostResponse> postFile(String endpoint, UriComponents uriComponents, String fileName, Publisher<DataBuffer> content) {
+
+        return metrics.timed(endpoint, Mono.defer(() -> {
+            MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
+            bodyBuilder.asyncPart("file", content, DataBuffer.class).filename(fileName);
+
+            log.debug("uri: {}", uriComponents);
+
+            return DataBufferUtils.join(client.post()
+                    .uri(uriComponents.toUri())
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+                    .body(BodyInserters.fromMultipartData(bodyBuilder.build()))
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class));
+        })).map(buffer -> metrics.decode(endpoint, () -> {
+            try {
+                return jsonMapper.readValue(buffer.asInputStream(), PostResponse.class);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        })).doOnNext(response -> log.debug("{} response: {}", endpoint, response));
+
+    }
 
-        log.debug("raw ingest from file response: \n\n{}\n", response);
+    private static int onlineSegments(JsonNode externalView) {
+        int online = 0;
 
-        return jsonMapper.readValue(response, PostResponse.class);
+        for (JsonNode replicas : externalView.values()) {
+            if (!replicas.isEmpty() && replicas.values().stream().allMatch(state -> "ONLINE".equals(state.asString()))) {
+                online++;
+            }
+        }
+
+        return online;
+    }
+
+    private static boolean isNotFound(Throwable e) {
+        return e instanceof PinotHttpException http && http.getStatusCode() == 404;
+    }
+
+    // cached queries are keyed by the table name in their FROM clause, which carries no type suffix
+    private static String rawTableName(String tableName) {
+        for (String suffix : List.of("_OFFLINE", "_REALTIME")) {
+            if (tableName.endsWith(suffix)) {
+                return tableName.substring(0, tableName.length() - suffix.length());
+            }
+        }
+
+        return tableName;
+    }
+
+    private static String tableNameWithType(JsonNode tableConfig) {
+        String tableName = tableConfig.get("tableName").asString();
+        String tableType = tableConfig.get("tableType").asString().toUpperCase(Locale.ROOT);
+
+        return tableName.endsWith("_" + tableType) ? tableName : tableName + "_" + tableType;
+    }
 
+    private Mono<String> readResource(Resource resource) {
+        return Mono.fromCallable(() -> resource.getContentAsString(Charset.defaultCharset()))
+                .subscribeOn(blockingScheduler);
     }
 }
@@ -0,0 +1,110 @@
+package org.apache.pinot.tc;
+
+import com.google.common.base.MoreObjects;
+import org.apache.pinot.tc.api.SqlQuery;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// a query as fetchPages sends it: comments dropped, the trailing OPTION(...) clause kept aside so LIMIT can go in
+// front of it, and the query's own LIMIT turned into the row bound both the cursor and the LIMIT/OFFSET path stop at
+final class PagedQuery {
+
+    private static final Pattern OPTION = Pattern.compile("(?i)\\s+(option\\s*\\([^()']*\\))$");
+    private static final Pattern OFFSET = Pattern.compile("(?i)\\s+(offset\\s+\\d+|limit\\s+\\d+\\s*,\\s*\\d+)$");
+    private static final Pattern LIMIT = Pattern.compile("(?i)\\s+limit\\s+(\\d+)$");
+
+    private final String sql;
+    private final String option;
+    private final long maxRows;
+
+    private PagedQuery(String sql, String option, long maxRows) {
+        this.sql = sql;
+        this.option = option;
+        this.maxRows = maxRows;
+    }
+
+    // without a LIMIT the broker would apply its own default of 10 rows to the cursor, so defaultMaxRows stands in
+    static PagedQuery parse(String query, long defaultMaxRows) {
+        String sql = SqlQuery.normalize(stripComments(query));
+        String option = null;
+
+        Matcher optionMatcher = OPTION.matcher(sql);
+
+        if (optionMatcher.find()) {
+            option = optionMatcher.group(1);
+            sql = sql.substring(0, optionMatcher.start());
+        }
+
+        if (OFFSET.matcher(sql).find()) {
+            throw new IllegalArgumentException("fetchPages pages the query itself, remove its OFFSET: %s".formatted(query));
+        }
+
+        long maxRows = defaultMaxRows;
+        Matcher limitMatcher = LIMIT.matcher(sql);
+
+        if (limitMatcher.find()) {
+            maxRows = Long.parseLong(limitMatcher.group(1));
+            sql = sql.substring(0, limitMatcher.start());
+        }
+
+        return new PagedQuery(sql, option, maxRows);
+    }
+
+    long getMaxRows() {
+        return maxRows;
+    }
+
+    String bounded() {
+        return withOption("%s LIMIT %d".formatted(sql, maxRows));
+    }
+
+    String page(long offset, long rows) {
+        return withOption("%s LIMIT %d OFFSET %d".formatted(sql, rows, offset));
+    }
+
+    private String withOption(String query) {
+        return option == null ? query : query + " " + option;
+    }
+
+    // a trailing -- comment would swallow the appended LIMIT; literals and quoted identifiers are left alone
+    private static String stripComments(String sql) {
+        StringBuilder stripped = new StringBuilder(sql.length());
+        char quote = 0;
+
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '-' && i + 1 < sql.length() && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end;
+                stripped.append('\n');
+                continue;
+            } else if (c == '/' && i + 1 < sql.length() && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 1;
+                stripped.append(' ');
+                continue;
+            }
+
+            stripped.append(c);
+        }
+
+        return stripped.toString();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("sql", sql)
+                .add("option", option)
+                .add("maxRows", maxRows)
+                .toString();
+    }
+}
@@ -0,0 +1,55 @@
+package org.apache.pinot.tc;
+
+import org.apache.pinot.tc.api.PinotHttpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+final class Polling {
+
+    private static final Logger log = LoggerFactory.getLogger(Polling.class);
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(100);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(5);
+
+    private Polling() {
+    }
+
+    // re-runs check with exponential backoff (100ms doubling up to 5s) until ready holds. A 404 or a failed connection
+    // only means "not ready yet", since the resource being polled often doesn't exist at first; any other error fails
+    // the wait at once, and the last swallowed one becomes the cause of the timeout
+    static <T> Mono<T> await(String description, Supplier<Mono<T>> check, Predicate<T> ready, Duration timeout) {
+        AtomicReference<Throwable> lastError = new AtomicReference<>();
+
+        return Mono.defer(check)
+                .doOnNext(value -> log.debug("waiting for {}: {}", description, value))
+                .filter(ready)
+                .onErrorResume(Polling::isNotReady, e -> {
+                    log.debug("waiting for {}: {}", description, e.getMessage());
+                    lastError.set(e);
+                    return Mono.empty();
+                })
+                .repeatWhenEmpty(attempts -> attempts.concatMap(attempt -> Mono.delay(backoff(attempt))))
+                .timeout(timeout, Mono.error(() -> new TimeoutException("timed out after %s waiting for %s".formatted(timeout, description))
+                        .initCause(lastError.get())))
+                .doOnNext(value -> log.debug("done waiting for {}", description));
+    }
+
+    private static boolean isNotReady(Throwable e) {
+        return e instanceof WebClientRequestException
+                || e instanceof TimeoutException
+                || (e instanceof PinotHttpException http && http.getStatusCode() == 404);
+    }
+
+    private static Duration backoff(long attempt) {
+        Duration delay = INITIAL_BACKOFF.multipliedBy(1L << Math.min(attempt, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+}
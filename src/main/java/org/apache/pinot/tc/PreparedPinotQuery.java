@@ -0,0 +1,328 @@
+package org.apache.pinot.tc;
+
+import com.google.common.base.MoreObjects;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import org.apache.pinot.tc.api.QueryOptions;
+import org.apache.pinot.tc.api.SqlQuery;
+import tools.jackson.core.io.JsonStringEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// a parameterized query split around its ? placeholders once; the segments are kept as JSON-escaped UTF-8 so each
+// request body is written straight into a ByteBuf: segment, escaped parameter, segment, ...
+public final class PreparedPinotQuery {
+
+    private static final byte[] SQL_PREFIX = "{\"sql\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NO_OPTIONS_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LONG_MIN_VALUE = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte UNSET = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte STRING = 4;
+    private static final byte NULL_VALUE = 5;
+
+    private final String sql;
+    private final String table;
+    private final QueryOptions options;
+    private final byte[][] segments;
+    private final byte[] suffix;
+    private final int fixedSize;
+
+    private volatile PreparedPinotQuery withDefaultTimeout;
+
+    private PreparedPinotQuery(String sql, QueryOptions options, List<String> segments) {
+        this(sql, options, segments.stream().map(JsonStringEncoder.getInstance()::quoteAsUTF8).toArray(byte[][]::new));
+    }
+
+    private PreparedPinotQuery(String sql, QueryOptions options, byte[][] segments) {
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+
+        this.sql = sql;
+        this.table = SqlQuery.tableName(sql);
+        this.options = options;
+        this.segments = segments;
+
+        String queryOptions = options.toQueryOptionsString();
+        this.suffix = queryOptions == null
+                ? NO_OPTIONS_SUFFIX
+                : ("\",\"queryOptions\":\"" + new String(encoder.quoteAsUTF8(queryOptions), StandardCharsets.UTF_8) + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        int size = SQL_PREFIX.length + suffix.length;
+
+        for (byte[] segment : this.segments) {
+            size += segment.length;
+        }
+
+        this.fixedSize = size;
+    }
+
+    public static PreparedPinotQuery prepare(String sql) {
+        return prepare(sql, QueryOptions.none());
+    }
+
+    public static PreparedPinotQuery prepare(String sql, QueryOptions options) {
+        List<String> segments = new ArrayList<>();
+        boolean inLiteral = false;
+        boolean inIdentifier = false;
+        int start = 0;
+
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+
+            if (c == '\'' && !inIdentifier) {
+                inLiteral = !inLiteral;
+            } else if (c == '"' && !inLiteral) {
+                inIdentifier = !inIdentifier;
+            } else if (inLiteral || inIdentifier) {
+                // quoted text can hold a ? or a comment marker, neither means anything there
+            } else if (c == '-' && sql.startsWith("-", i + 1)) {
+                // a ? in a comment is not a placeholder; the comment itself is still sent as written
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end;
+            } else if (c == '/' && sql.startsWith("*", i + 1)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (c == '?') {
+                segments.add(sql.substring(start, i));
+                start = i + 1;
+            }
+        }
+
+        segments.add(sql.substring(start));
+
+        return new PreparedPinotQuery(sql, options, segments);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public QueryOptions getOptions() {
+        return options;
+    }
+
+    // a query prepared without a timeout takes the service default; the copy shares the encoded segments and is
+    // kept, so its suffix is only encoded again if the default changes
+    PreparedPinotQuery withDefaultTimeout(Duration timeout) {
+        if (timeout == null || options.getTimeout() != null) {
+            return this;
+        }
+
+        PreparedPinotQuery defaulted = withDefaultTimeout;
+
+        if (defaulted == null || !timeout.equals(defaulted.options.getTimeout())) {
+            defaulted = new PreparedPinotQuery(sql, options.withTimeout(timeout), segments);
+            withDefaultTimeout = defaulted;
+        }
+
+        return defaulted;
+    }
+
+    public int getParameterCount() {
+        return segments.length - 1;
+    }
+
+    public Parameters newParameters() {
+        return new Parameters(getParameterCount());
+    }
+
+    // the caller owns the returned buffer
+    public ByteBuf render(Parameters parameters, ByteBufAllocator allocator) {
+        if (parameters.types.length != getParameterCount()) {
+            throw new IllegalArgumentException("query has %d parameters, got %d".formatted(getParameterCount(), parameters.types.length));
+        }
+
+        ByteBuf buf = allocator.buffer(fixedSize + parameters.estimateSize());
+
+        try {
+            buf.writeBytes(SQL_PREFIX);
+            buf.writeBytes(segments[0]);
+
+            for (int i = 0; i < parameters.types.length; i++) {
+                parameters.write(i, buf);
+                buf.writeBytes(segments[i + 1]);
+            }
+
+            buf.writeBytes(suffix);
+            return buf;
+        } catch (RuntimeException e) {
+            buf.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("sql", sql)
+                .add("parameterCount", getParameterCount())
+                .add("options", options)
+                .toString();
+    }
+
+    // values are read when the request body is written, which happens again for a retried or hedged request, so
+    // don't change them until the query has completed
+    public static final class Parameters {
+
+        private final byte[] types;
+        private final long[] longs;
+        private final double[] doubles;
+        private final String[] strings;
+
+        private Parameters(int count) {
+            this.types = new byte[count];
+            this.longs = new long[count];
+            this.doubles = new double[count];
+            this.strings = new String[count];
+        }
+
+        public Parameters setInt(int index, int value) {
+            return setLong(index, value);
+        }
+
+        public Parameters setLong(int index, long value) {
+            types[index] = LONG;
+            longs[index] = value;
+            return this;
+        }
+
+        public Parameters setDouble(int index, double value) {
+            if (!Double.isFinite(value)) {
+                throw new IllegalArgumentException("parameter %d is %s, Pinot SQL has no literal for it".formatted(index, value));
+            }
+
+            types[index] = DOUBLE;
+            doubles[index] = value;
+            return this;
+        }
+
+        public Parameters setBoolean(int index, boolean value) {
+            types[index] = BOOLEAN;
+            longs[index] = value ? 1 : 0;
+            return this;
+        }
+
+        public Parameters setString(int index, String value) {
+            if (value == null) {
+                return setNull(index);
+            }
+
+            types[index] = STRING;
+            strings[index] = value;
+            return this;
+        }
+
+        public Parameters setNull(int index) {
+            types[index] = NULL_VALUE;
+            strings[index] = null;
+            return this;
+        }
+
+        public Parameters clear() {
+            Arrays.fill(types, UNSET);
+            Arrays.fill(strings, null);
+            return this;
+        }
+
+        private int estimateSize() {
+            int size = 0;
+
+            for (int i = 0; i < types.length; i++) {
+                size += types[i] == STRING ? strings[i].length() + 8 : 24;
+            }
+
+            return size;
+        }
+
+        private void write(int index, ByteBuf buf) {
+            switch (types[index]) {
+                case LONG -> writeLong(buf, longs[index]);
+                case DOUBLE -> ByteBufUtil.writeAscii(buf, Double.toString(doubles[index]));
+                case BOOLEAN -> buf.writeBytes(longs[index] != 0 ? TRUE : FALSE);
+                case STRING -> writeStringLiteral(buf, strings[index]);
+                case NULL_VALUE -> buf.writeBytes(NULL);
+                default -> throw new IllegalStateException("parameter %d is not set".formatted(index));
+            }
+        }
+    }
+
+    private static void writeLong(ByteBuf buf, long value) {
+        if (value == Long.MIN_VALUE) {
+            buf.writeBytes(LONG_MIN_VALUE);
+            return;
+        }
+
+        if (value < 0) {
+            buf.writeByte('-');
+            value = -value;
+        }
+
+        int digits = 1;
+
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+
+        buf.ensureWritable(digits);
+        int end = buf.writerIndex() + digits;
+
+        for (int i = end - 1; i >= buf.writerIndex(); i--) {
+            buf.setByte(i, '0' + (int) (value % 10));
+            value /= 10;
+        }
+
+        buf.writerIndex(end);
+    }
+
+    // a SQL string literal ('' doubles a quote) inside a JSON string (quotes, backslashes and control characters
+    // escaped); runs of plain characters are UTF-8 encoded straight from the String
+    private static void writeStringLiteral(ByteBuf buf, String value) {
+        buf.writeByte('\'');
+
+        int run = 0;
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c != '\'' && c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+
+            if (run < i) {
+                ByteBufUtil.writeUtf8(buf, value, run, i);
+            }
+
+            switch (c) {
+                case '\'' -> buf.writeByte('\'').writeByte('\'');
+                case '"' -> buf.writeByte('\\').writeByte('"');
+                case '\\' -> buf.writeByte('\\').writeByte('\\');
+                default -> buf.writeByte('\\').writeByte('u').writeByte('0').writeByte('0')
+                        .writeByte(HEX[c >> 4]).writeByte(HEX[c & 0xF]);
+            }
+
+            run = i + 1;
+        }
+
+        if (run < value.length()) {
+            ByteBufUtil.writeUtf8(buf, value, run, value.length());
+        }
+
+        buf.writeByte('\'');
+    }
+}
@@ -0,0 +1,148 @@
+package org.apache.pinot.tc;
+
+import org.apache.pinot.tc.api.DataSchema;
+import org.apache.pinot.tc.api.QueryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class ResultTableReader implements Iterator<Object[]>, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultTableReader.class);
+
+    private final JsonMapper jsonMapper;
+    private final JsonParser parser;
+
+    private DataSchema dataSchema;
+    private List<QueryException> exceptions = new ArrayList<>();
+
+    private boolean inResultTable;
+    private boolean inRows;
+    private boolean finished;
+    private Object[] next;
+
+    ResultTableReader(JsonMapper jsonMapper, InputStream inputStream) {
+        this.jsonMapper = jsonMapper;
+        this.parser = jsonMapper.createParser(inputStream);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = advance();
+
+            if (next == null) {
+                finished = true;
+
+                for (QueryException ex : exceptions) {
+                    log.error(ex.getMessage(), ex);
+                }
+            }
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Object[] row = next;
+        next = null;
+        return row;
+    }
+
+    public DataSchema getDataSchema() {
+        return dataSchema;
+    }
+
+    public List<QueryException> getExceptions() {
+        return exceptions;
+    }
+
+    @Override
+    public void close() {
+        parser.close();
+    }
+
+    private Object[] advance() {
+        JsonToken token;
+
+        while ((token = parser.nextToken()) != null) {
+            if (inRows) {
+                if (token == JsonToken.START_ARRAY) {
+                    return readRow();
+                }
+
+                inRows = false;
+                continue;
+            }
+
+            if (token == JsonToken.START_OBJECT) {
+                continue;
+            }
+
+            if (token == JsonToken.END_OBJECT) {
+                inResultTable = false;
+                continue;
+            }
+
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            if (inResultTable) {
+                switch (name) {
+                    case "dataSchema" -> dataSchema = jsonMapper.readValue(parser, DataSchema.class);
+                    case "rows" -> inRows = value == JsonToken.START_ARRAY;
+                    default -> parser.skipChildren();
+                }
+            } else {
+                switch (name) {
+                    case "resultTable" -> inResultTable = value == JsonToken.START_OBJECT;
+                    case "exceptions" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            exceptions = Arrays.asList(jsonMapper.readValue(parser, QueryException[].class));
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private Object[] readRow() {
+        List<Object> values = new ArrayList<>(dataSchema != null ? dataSchema.getColumnCount() : 16);
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(readValue());
+        }
+
+        return values.toArray();
+    }
+
+    private Object readValue() {
+        return switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT -> parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+            case VALUE_STRING -> parser.getString();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            default -> jsonMapper.readValue(parser, Object.class);
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package org.apache.pinot.tc.api;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FloatingPointVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// decodes an Arrow IPC stream into the same primitive columns the JSON path produces; the off-heap vectors are
+// copied out batch by batch and released, so a ResultTable never pins Arrow memory (it may sit in the cache).
+// An instance owns its allocator, so callers like BrokerService need no Arrow types of their own and the optional
+// Arrow dependency only has to be present when the format is enabled
+public final class ArrowResponseReader implements AutoCloseable {
+
+    private final BufferAllocator allocator;
+
+    public ArrowResponseReader() {
+        this.allocator = new RootAllocator();
+    }
+
+    public QueryResponse read(InputStream in) {
+        return read(in, allocator);
+    }
+
+    @Override
+    public void close() {
+        allocator.close();
+    }
+
+    public static QueryResponse read(InputStream in, BufferAllocator allocator) {
+        try (ArrowStreamReader reader = new ArrowStreamReader(in, allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            List<FieldVector> vectors = root.getFieldVectors();
+
+            DataSchema dataSchema = new DataSchema();
+            List<String> columnNames = new ArrayList<>(vectors.size());
+            List<String> columnDataTypes = new ArrayList<>(vectors.size());
+
+            for (FieldVector vector : vectors) {
+                columnNames.add(vector.getName());
+                columnDataTypes.add(dataType(vector));
+            }
+
+            dataSchema.setColumnNames(columnNames);
+            dataSchema.setColumnDataTypes(columnDataTypes);
+
+            ResultTable.Column[] columns = new ResultTable.Column[vectors.size()];
+
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = ResultTable.Column.forDataType(columnDataTypes.get(i));
+            }
+
+            int rowCount = 0;
+
+            while (reader.loadNextBatch()) {
+                int batchRows = root.getRowCount();
+
+                for (int i = 0; i < columns.length; i++) {
+                    copy(root.getVector(i), columns[i], rowCount, batchRows);
+                }
+
+                rowCount += batchRows;
+            }
+
+            for (ResultTable.Column column : columns) {
+                column.trim(rowCount);
+            }
+
+            QueryResponse response = new QueryResponse();
+            response.setResultTable(new ResultTable(dataSchema, rowCount, columns));
+            response.setNumRowsResultSet(rowCount);
+            return response;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String dataType(FieldVector vector) {
+        return switch (vector) {
+            case IntVector v -> "INT";
+            case SmallIntVector v -> "INT";
+            case TinyIntVector v -> "INT";
+            case BaseIntVector v -> "LONG";
+            case FloatingPointVector v -> "DOUBLE";
+            case BitVector v -> "BOOLEAN";
+            case VarCharVector v -> "STRING";
+            case TimeStampVector v -> "TIMESTAMP";
+            default -> "OBJECT";
+        };
+    }
+
+    private static void copy(FieldVector vector, ResultTable.Column column, int offset, int count) {
+        switch (column) {
+            case ResultTable.IntColumn c -> {
+                BaseIntVector ints = (BaseIntVector) vector;
+                for (int i = 0; i < count; i++) {
+                    if (vector.isNull(i)) {
+                        c.readNull(offset + i);
+                    } else {
+                        c.set(offset + i, (int) ints.getValueAsLong(i));
+                    }
+                }
+            }
+            case ResultTable.LongColumn c -> {
+                BaseIntVector longs = (BaseIntVector) vector;
+                for (int i = 0; i < count; i++) {
+                    if (vector.isNull(i)) {
+                        c.readNull(offset + i);
+                    } else {
+                        c.set(offset + i, longs.getValueAsLong(i));
+                    }
+                }
+            }
+            case ResultTable.DoubleColumn c -> {
+                FloatingPointVector doubles = (FloatingPointVector) vector;
+                for (int i = 0; i < count; i++) {
+                    if (vector.isNull(i)) {
+                        c.readNull(offset + i);
+                    } else {
+                        c.set(offset + i, doubles.getValueAsDouble(i));
+                    }
+                }
+            }
+            case ResultTable.BooleanColumn c -> {
+                BitVector bits = (BitVector) vector;
+                for (int i = 0; i < count; i++) {
+                    if (vector.isNull(i)) {
+                        c.readNull(offset + i);
+                    } else {
+                        c.set(offset + i, bits.get(i) != 0);
+                    }
+                }
+            }
+            case ResultTable.StringColumn c -> {
+                for (int i = 0; i < count; i++) {
+                    if (vector.isNull(i)) {
+                        c.readNull(offset + i);
+                    } else if (vector instanceof VarCharVector strings) {
+                        c.set(offset + i, new String(strings.get(i), StandardCharsets.UTF_8));
+                    } else {
+                        c.set(offset + i, vector.getObject(i).toString());
+                    }
+                }
+            }
+            case ResultTable.ObjectColumn c -> {
+                for (int i = 0; i < count; i++) {
+                    if (vector.isNull(i)) {
+                        c.readNull(offset + i);
+                    } else {
+                        c.set(offset + i, vector.getObject(i));
+                    }
+                }
+            }
+            default -> throw new IllegalStateException("unexpected column " + column.getClass().getSimpleName());
+        }
+    }
+}
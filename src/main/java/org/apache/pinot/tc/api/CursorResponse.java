@@ -0,0 +1,75 @@
+package org.apache.pinot.tc.api;
+
+import com.google.common.base.MoreObjects;
+
+public class CursorResponse extends QueryResponse {
+    private String requestId;
+    private long offset;
+    private int numRows;
+    private String brokerHost;
+    private int brokerPort;
+    private long expirationTimeMs;
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public void setNumRows(int numRows) {
+        this.numRows = numRows;
+    }
+
+    public String getBrokerHost() {
+        return brokerHost;
+    }
+
+    public void setBrokerHost(String brokerHost) {
+        this.brokerHost = brokerHost;
+    }
+
+    public int getBrokerPort() {
+        return brokerPort;
+    }
+
+    public void setBrokerPort(int brokerPort) {
+        this.brokerPort = brokerPort;
+    }
+
+    public long getExpirationTimeMs() {
+        return expirationTimeMs;
+    }
+
+    public void setExpirationTimeMs(long expirationTimeMs) {
+        this.expirationTimeMs = expirationTimeMs;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("requestId", requestId)
+                .add("offset", offset)
+                .add("numRows", numRows)
+                .add("numRowsResultSet", getNumRowsResultSet())
+                .add("brokerHost", brokerHost)
+                .add("brokerPort", brokerPort)
+                .add("expirationTimeMs", expirationTimeMs)
+                .add("resultTable", getResultTable())
+                .add("exceptions", getExceptions())
+                .toString();
+    }
+}
@@ -0,0 +1,42 @@
+package org.apache.pinot.tc.api;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.MoreObjects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DataSchema {
+
+    private List<String> columnNames = new ArrayList<>();
+    private List<String> columnDataTypes = new ArrayList<>();
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public void setColumnNames(List<String> columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    public List<String> getColumnDataTypes() {
+        return columnDataTypes;
+    }
+
+    public void setColumnDataTypes(List<String> columnDataTypes) {
+        this.columnDataTypes = columnDataTypes;
+    }
+
+    @JsonIgnore
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("columnNames", columnNames)
+                .add("columnDataTypes", columnDataTypes)
+                .toString();
+    }
+}
@@ -0,0 +1,30 @@
+package org.apache.pinot.tc.api;
+
+public class PinotHttpException extends RuntimeException {
+
+    private final int statusCode;
+    private final String responseBody;
+
+    public PinotHttpException(int statusCode, String responseBody) {
+        super("HTTP %d: %s".formatted(statusCode, responseBody));
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public boolean isServerError() {
+        return statusCode >= 500;
+    }
+
+    // 5xx and 429 are transient broker conditions; any other 4xx would fail the same way on every broker
+    public boolean isRetryable() {
+        return isServerError() || statusCode == 429;
+    }
+}
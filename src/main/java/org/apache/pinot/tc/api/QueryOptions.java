@@ -0,0 +1,73 @@
+package org.apache.pinot.tc.api;
+
+import com.google.common.base.MoreObjects;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+public class QueryOptions {
+
+    private static final QueryOptions NONE = new QueryOptions(null, Map.of());
+
+    private final Duration timeout;
+    private final Map<String, String> options;
+
+    private QueryOptions(Duration timeout, Map<String, String> options) {
+        this.timeout = timeout;
+        this.options = options;
+    }
+
+    public static QueryOptions none() {
+        return NONE;
+    }
+
+    public static QueryOptions timeout(Duration timeout) {
+        return NONE.withTimeout(timeout);
+    }
+
+    public QueryOptions withTimeout(Duration timeout) {
+        return new QueryOptions(timeout, options);
+    }
+
+    public QueryOptions withOption(String key, String value) {
+        Map<String, String> updated = new LinkedHashMap<>(options);
+        updated.put(key, value);
+        return new QueryOptions(timeout, Collections.unmodifiableMap(updated));
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    // the broker's queryOptions format, e.g. timeoutMs=5000;useMultistageEngine=true
+    public String toQueryOptionsString() {
+        if (timeout == null && options.isEmpty()) {
+            return null;
+        }
+
+        StringJoiner joiner = new StringJoiner(";");
+
+        if (timeout != null) {
+            joiner.add("timeoutMs=" + timeout.toMillis());
+        }
+
+        options.forEach((key, value) -> joiner.add(key + "=" + value));
+
+        return joiner.toString();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("timeout", timeout)
+                .add("options", options)
+                .toString();
+    }
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class QueryResponse {
+    private ResultTable resultTable;
     private List<QueryException> exceptions = new ArrayList<>();
     private long minConsumingFreshnessTimeMs;
     private long numConsumingSegmentsQueried;
@@ -22,6 +23,14 @@ public class QueryResponse {
     private long timeUsedMs;
     private long totalDocs;
 
+    public ResultTable getResultTable() {
+        return resultTable;
+    }
+
+    public void setResultTable(ResultTable resultTable) {
+        this.resultTable = resultTable;
+    }
+
     public List<QueryException> getExceptions() {
         return exceptions;
     }
@@ -145,6 +154,7 @@ public class QueryResponse {
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
+                .add("resultTable", resultTable)
                 .add("exceptions", exceptions)
                 .add("minConsumingFreshnessTimeMs", minConsumingFreshnessTimeMs)
                 .add("numConsumingSegmentsQueried", numConsumingSegmentsQueried)
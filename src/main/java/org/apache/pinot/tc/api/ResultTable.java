@@ -0,0 +1,511 @@
+package org.apache.pinot.tc.api;
+
+import com.google.common.base.MoreObjects;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.annotation.JsonDeserialize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@JsonDeserialize(using = ResultTableDeserializer.class)
+public class ResultTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final DataSchema dataSchema;
+    private final int rowCount;
+    private final Column[] columns;
+
+    ResultTable(DataSchema dataSchema, int rowCount, Column[] columns) {
+        this.dataSchema = dataSchema;
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    public DataSchema getDataSchema() {
+        return dataSchema;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public int getColumnIndex(String columnName) {
+        return dataSchema.getColumnNames().indexOf(columnName);
+    }
+
+    public boolean isNull(int row, int column) {
+        return columns[column].isNull(row);
+    }
+
+    public int getInt(int row, int column) {
+        return columns[column].getInt(row);
+    }
+
+    public long getLong(int row, int column) {
+        return columns[column].getLong(row);
+    }
+
+    public double getDouble(int row, int column) {
+        return columns[column].getDouble(row);
+    }
+
+    public boolean getBoolean(int row, int column) {
+        return columns[column].getBoolean(row);
+    }
+
+    public String getString(int row, int column) {
+        return columns[column].getString(row);
+    }
+
+    public Object getObject(int row, int column) {
+        return columns[column].isNull(row) ? null : columns[column].getObject(row);
+    }
+
+    public int[] getIntColumn(int column) {
+        return ((IntColumn) columns[column]).values;
+    }
+
+    public long[] getLongColumn(int column) {
+        return ((LongColumn) columns[column]).values;
+    }
+
+    public double[] getDoubleColumn(int column) {
+        return ((DoubleColumn) columns[column]).values;
+    }
+
+    public long estimateSizeInBytes() {
+        long size = 0;
+
+        for (Column column : columns) {
+            size += column.estimateSizeInBytes(rowCount);
+        }
+
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("dataSchema", dataSchema)
+                .add("rowCount", rowCount)
+                .toString();
+    }
+
+    static class Builder {
+
+        private final DataSchema dataSchema;
+        private final Column[] columns;
+
+        private int rowCount;
+
+        Builder(DataSchema dataSchema) {
+            this.dataSchema = dataSchema;
+            this.columns = new Column[dataSchema.getColumnCount()];
+
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Column.forDataType(dataSchema.getColumnDataTypes().get(i));
+            }
+        }
+
+        void readRow(JsonParser parser, DeserializationContext ctxt) {
+            int column = 0;
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (column >= columns.length) {
+                    ctxt.reportInputMismatch(ResultTable.class, "row %d has more values than the %d columns in the data schema", rowCount, columns.length);
+                }
+
+                if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                    columns[column].readNull(rowCount);
+                } else {
+                    columns[column].read(rowCount, parser, ctxt);
+                }
+
+                column++;
+            }
+
+            // a short row would leave cells unset, which a StringColumn would read as another row's value
+            if (column < columns.length) {
+                ctxt.reportInputMismatch(ResultTable.class, "row %d has %d values but the data schema has %d columns", rowCount, column, columns.length);
+            }
+
+            rowCount++;
+        }
+
+        ResultTable build() {
+            for (Column column : columns) {
+                column.trim(rowCount);
+            }
+
+            return new ResultTable(dataSchema, rowCount, columns);
+        }
+    }
+
+    abstract static class Column {
+
+        private BitSet nulls;
+
+        static Column forDataType(String dataType) {
+            return switch (dataType) {
+                case "INT" -> new IntColumn();
+                case "LONG" -> new LongColumn();
+                case "FLOAT", "DOUBLE" -> new DoubleColumn();
+                case "BOOLEAN" -> new BooleanColumn();
+                case "STRING", "JSON", "BYTES", "BIG_DECIMAL", "TIMESTAMP" -> new StringColumn();
+                default -> new ObjectColumn();
+            };
+        }
+
+        abstract void read(int row, JsonParser parser, DeserializationContext ctxt);
+
+        abstract void reserve(int row);
+
+        abstract void trim(int rowCount);
+
+        abstract Object getObject(int row);
+
+        abstract long estimateSizeInBytes(int rowCount);
+
+        void readNull(int row) {
+            if (nulls == null) {
+                nulls = new BitSet();
+            }
+
+            nulls.set(row);
+            reserve(row);
+        }
+
+        boolean isNull(int row) {
+            return nulls != null && nulls.get(row);
+        }
+
+        int getInt(int row) {
+            throw unsupported("int");
+        }
+
+        long getLong(int row) {
+            throw unsupported("long");
+        }
+
+        double getDouble(int row) {
+            throw unsupported("double");
+        }
+
+        boolean getBoolean(int row) {
+            throw unsupported("boolean");
+        }
+
+        String getString(int row) {
+            Object value = getObject(row);
+            return isNull(row) || value == null ? null : value.toString();
+        }
+
+        private UnsupportedOperationException unsupported(String type) {
+            return new UnsupportedOperationException("%s cannot be read as %s".formatted(getClass().getSimpleName(), type));
+        }
+
+        static int grow(int capacity) {
+            return Math.max(INITIAL_CAPACITY, capacity * 2);
+        }
+    }
+
+    static final class IntColumn extends Column {
+
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        @Override
+        void read(int row, JsonParser parser, DeserializationContext ctxt) {
+            set(row, parser.currentToken() == JsonToken.VALUE_STRING ? Integer.parseInt(parser.getString()) : parser.getIntValue());
+        }
+
+        void set(int row, int value) {
+            reserve(row);
+            values[row] = value;
+        }
+
+        @Override
+        void reserve(int row) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+        }
+
+        @Override
+        void trim(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+        }
+
+        @Override
+        long estimateSizeInBytes(int rowCount) {
+            return 4L * rowCount;
+        }
+
+        @Override
+        Object getObject(int row) {
+            return values[row];
+        }
+
+        @Override
+        int getInt(int row) {
+            return values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+    }
+
+    static final class LongColumn extends Column {
+
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        @Override
+        void read(int row, JsonParser parser, DeserializationContext ctxt) {
+            set(row, parser.currentToken() == JsonToken.VALUE_STRING ? Long.parseLong(parser.getString()) : parser.getLongValue());
+        }
+
+        void set(int row, long value) {
+            reserve(row);
+            values[row] = value;
+        }
+
+        @Override
+        void reserve(int row) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+        }
+
+        @Override
+        void trim(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+        }
+
+        @Override
+        long estimateSizeInBytes(int rowCount) {
+            return 8L * rowCount;
+        }
+
+        @Override
+        Object getObject(int row) {
+            return values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+    }
+
+    static final class DoubleColumn extends Column {
+
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        @Override
+        void read(int row, JsonParser parser, DeserializationContext ctxt) {
+            set(row, parser.currentToken() == JsonToken.VALUE_STRING ? Double.parseDouble(parser.getString()) : parser.getDoubleValue());
+        }
+
+        void set(int row, double value) {
+            reserve(row);
+            values[row] = value;
+        }
+
+        @Override
+        void reserve(int row) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+        }
+
+        @Override
+        void trim(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+        }
+
+        @Override
+        long estimateSizeInBytes(int rowCount) {
+            return 8L * rowCount;
+        }
+
+        @Override
+        Object getObject(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+    }
+
+    static final class BooleanColumn extends Column {
+
+        private final BitSet values = new BitSet();
+
+        @Override
+        void read(int row, JsonParser parser, DeserializationContext ctxt) {
+            set(row, switch (parser.currentToken()) {
+                case VALUE_TRUE -> true;
+                case VALUE_NUMBER_INT -> parser.getIntValue() != 0;
+                case VALUE_STRING -> Boolean.parseBoolean(parser.getString());
+                default -> false;
+            });
+        }
+
+        void set(int row, boolean value) {
+            values.set(row, value);
+        }
+
+        @Override
+        void reserve(int row) {
+        }
+
+        @Override
+        void trim(int rowCount) {
+        }
+
+        @Override
+        long estimateSizeInBytes(int rowCount) {
+            return rowCount / 8 + 1;
+        }
+
+        @Override
+        Object getObject(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        boolean getBoolean(int row) {
+            return values.get(row);
+        }
+    }
+
+    static final class StringColumn extends Column {
+
+        private final List<String> dictionary = new ArrayList<>();
+        // only needed while reading, dropped by trim so a cached table doesn't hold its dictionary twice
+        private Map<String, Integer> dictionaryIds = new HashMap<>();
+
+        private int[] ids = new int[INITIAL_CAPACITY];
+
+        @Override
+        void read(int row, JsonParser parser, DeserializationContext ctxt) {
+            set(row, parser.getString());
+        }
+
+        void set(int row, String value) {
+            reserve(row);
+
+            Integer id = dictionaryIds.get(value);
+
+            if (id == null) {
+                id = dictionary.size();
+                dictionary.add(value);
+                dictionaryIds.put(value, id);
+            }
+
+            ids[row] = id;
+        }
+
+        @Override
+        void reserve(int row) {
+            if (row >= ids.length) {
+                ids = Arrays.copyOf(ids, grow(ids.length));
+            }
+        }
+
+        @Override
+        void readNull(int row) {
+            super.readNull(row);
+            ids[row] = -1;
+        }
+
+        @Override
+        void trim(int rowCount) {
+            ids = Arrays.copyOf(ids, rowCount);
+            dictionaryIds = null;
+        }
+
+        @Override
+        long estimateSizeInBytes(int rowCount) {
+            long size = 4L * rowCount;
+
+            for (String value : dictionary) {
+                size += 40 + 2L * value.length();
+            }
+
+            return size;
+        }
+
+        @Override
+        Object getObject(int row) {
+            return getString(row);
+        }
+
+        @Override
+        String getString(int row) {
+            int id = ids[row];
+            return id < 0 ? null : dictionary.get(id);
+        }
+    }
+
+    static final class ObjectColumn extends Column {
+
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        @Override
+        void read(int row, JsonParser parser, DeserializationContext ctxt) {
+            set(row, ctxt.readValue(parser, Object.class));
+        }
+
+        void set(int row, Object value) {
+            reserve(row);
+            values[row] = value;
+        }
+
+        @Override
+        void reserve(int row) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+        }
+
+        @Override
+        void trim(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+        }
+
+        @Override
+        long estimateSizeInBytes(int rowCount) {
+            return 32L * rowCount;
+        }
+
+        @Override
+        Object getObject(int row) {
+            return values[row];
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.apache.pinot.tc.api;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ValueDeserializer;
+
+class ResultTableDeserializer extends ValueDeserializer<ResultTable> {
+
+    @Override
+    public ResultTable deserialize(JsonParser parser, DeserializationContext ctxt) {
+        DataSchema dataSchema = new DataSchema();
+        boolean schemaRead = false;
+        ResultTable.Builder builder = null;
+
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (name) {
+                case "dataSchema" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        dataSchema = ctxt.readValue(parser, DataSchema.class);
+                        schemaRead = true;
+                    }
+                }
+                case "rows" -> {
+                    // the columns are typed from the schema, rows read without it would be silently mistyped
+                    if (!schemaRead && value == JsonToken.START_ARRAY) {
+                        ctxt.reportInputMismatch(ResultTable.class, "resultTable rows came before its dataSchema");
+                    }
+
+                    builder = new ResultTable.Builder(dataSchema);
+
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_ARRAY) {
+                            builder.readRow(parser, ctxt);
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        return (builder != null ? builder : new ResultTable.Builder(dataSchema)).build();
+    }
+}
@@ -1,14 +1,172 @@
 package org.apache.pinot.tc.api;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Set;
+
 public class SqlQuery {
 
+    private static final Set<String> FROM_CLAUSE_END = Set.of("where", "group", "order", "having", "limit", "option");
+
     private final String sql;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String queryOptions;
+
     public SqlQuery(String sql) {
+        this(sql, null);
+    }
+
+    public SqlQuery(String sql, String queryOptions) {
         this.sql = sql;
+        this.queryOptions = queryOptions;
     }
 
     public String getSql() {
         return sql;
     }
+
+    public String getQueryOptions() {
+        return queryOptions;
+    }
+
+    public static String normalize(String sql) {
+        StringBuilder normalized = new StringBuilder(sql.length());
+        boolean inLiteral = false;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+
+            if (!inLiteral && Character.isWhitespace(c)) {
+                pendingSpace = !normalized.isEmpty();
+                continue;
+            }
+
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+
+            normalized.append(c);
+        }
+
+        if (!normalized.isEmpty() && normalized.charAt(normalized.length() - 1) == ';') {
+            normalized.setLength(normalized.length() - 1);
+        }
+
+        return normalized.toString().stripTrailing();
+    }
+
+    // the table of the top-level FROM, skipping FROM inside parentheses (extract(year FROM ts)), literals, quoted
+    // identifiers and comments; null when there is none or the query reads more than one table (a join, a union or
+    // a subquery anywhere), so a result is never attributed to the wrong table
+    public static String tableName(String sql) {
+        String table = null;
+        boolean expectTable = false;
+        boolean inFromClause = false;
+        int depth = 0;
+        int i = 0;
+        BitSet subqueries = new BitSet();
+
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+
+            if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+            } else if (c == '"') {
+                int end = skipQuoted(sql, i, '"');
+
+                if (depth == 0 && expectTable) {
+                    table = sql.substring(i + 1, Math.max(i + 1, end - 1));
+                    expectTable = false;
+                    inFromClause = true;
+                }
+
+                i = end;
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else if (c == '(') {
+                if (depth == 0 && expectTable) {
+                    return null;
+                }
+
+                depth++;
+                i++;
+            } else if (c == ')') {
+                subqueries.clear(Math.max(depth, 0));
+                depth--;
+                i++;
+            } else if (c == ',' && depth == 0 && inFromClause) {
+                return null;
+            } else if (Character.isLetterOrDigit(c) || c == '_') {
+                int start = i;
+
+                while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_' || sql.charAt(i) == '.')) {
+                    i++;
+                }
+
+                String word = sql.substring(start, i);
+
+                if (depth > 0) {
+                    // FROM after SELECT inside parentheses is a subquery, after anything else it's extract(... FROM ts)
+                    if (word.equalsIgnoreCase("select")) {
+                        subqueries.set(depth);
+                    } else if (word.equalsIgnoreCase("from") && subqueries.get(depth)) {
+                        return null;
+                    }
+                } else {
+                    if (expectTable) {
+                        table = word;
+                        expectTable = false;
+                        inFromClause = true;
+                    } else if (word.equalsIgnoreCase("from")) {
+                        if (table != null) {
+                            return null;
+                        }
+
+                        expectTable = true;
+                    } else if (word.equalsIgnoreCase("join")) {
+                        return null;
+                    } else if (FROM_CLAUSE_END.contains(word.toLowerCase(Locale.ROOT))) {
+                        inFromClause = false;
+                    }
+                }
+            } else {
+                i++;
+            }
+        }
+
+        return table;
+    }
+
+    // index just past the closing quote, a doubled quote is an escaped one
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+
+                return i + 1;
+            }
+
+            i++;
+        }
+
+        return sql.length();
+    }
 }
@@ -0,0 +1,62 @@
+package org.apache.pinot.tc.bootstrap;
+
+import com.google.common.base.MoreObjects;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+public class BootstrapResult {
+
+    public enum Kind {
+        SCHEMA, TABLE
+    }
+
+    public enum Action {
+        CREATED, UPDATED, UNCHANGED
+    }
+
+    private final Path file;
+    private final Kind kind;
+    private final String name;
+    private final Action action;
+    private final Duration elapsed;
+
+    public BootstrapResult(Path file, Kind kind, String name, Action action, Duration elapsed) {
+        this.file = file;
+        this.kind = kind;
+        this.name = name;
+        this.action = action;
+        this.elapsed = elapsed;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("file", file)
+                .add("kind", kind)
+                .add("name", name)
+                .add("action", action)
+                .add("elapsed", elapsed)
+                .toString();
+    }
+}
@@ -0,0 +1,216 @@
+package org.apache.pinot.tc.bootstrap;
+
+import com.google.common.hash.Hashing;
+import org.apache.pinot.tc.ControllerService;
+import org.apache.pinot.tc.api.PinotHttpException;
+import org.apache.pinot.tc.api.PostResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Service
+public class TableBootstrapService {
+
+    private static final Logger log = LoggerFactory.getLogger(TableBootstrapService.class);
+
+    private static final String PROPERTY_PREFIX = "pinot.bootstrap.";
+
+    private final ControllerService controllerService;
+    private final JsonMapper jsonMapper;
+    private final Scheduler blockingScheduler;
+    private final int parallelism;
+    private final Path stateFile;
+
+    // config name -> hash of the config last applied, so unchanged files can be skipped
+    private final Map<String, String> appliedHashes = new ConcurrentHashMap<>();
+
+    public TableBootstrapService(ControllerService controllerService, JsonMapper jsonMapper, Environment environment,
+                                 @Qualifier("pinot_blocking_scheduler") Scheduler blockingScheduler) {
+        this.controllerService = controllerService;
+        this.jsonMapper = jsonMapper;
+        this.blockingScheduler = blockingScheduler;
+        this.parallelism = environment.getProperty(PROPERTY_PREFIX + "parallelism", Integer.class, 8);
+        this.stateFile = environment.getProperty(PROPERTY_PREFIX + "state-file", Path.class);
+
+        loadState();
+    }
+
+    public List<BootstrapResult> bootstrap(Path directory) {
+        return bootstrapAsync(directory).block();
+    }
+
+    // every schema is applied concurrently and each table starts as soon as its own schema is done; a config whose
+    // content matches what was last applied, and that still exists on the controller, is left alone
+    public Mono<List<BootstrapResult>> bootstrapAsync(Path directory) {
+        long start = System.nanoTime();
+
+        return listConfigFiles(directory)
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(this::readConfig, parallelism)
+                .collectList()
+                .flatMapMany(configs -> {
+                    Map<String, Mono<BootstrapResult>> schemas = new HashMap<>();
+                    List<ConfigFile> tables = new ArrayList<>();
+
+                    for (ConfigFile config : configs) {
+                        if (config.kind() == BootstrapResult.Kind.SCHEMA) {
+                            schemas.put(config.name(), apply(config).cache());
+                        } else {
+                            tables.add(config);
+                        }
+                    }
+
+                    log.info("bootstrapping {} schemas and {} tables from {}", schemas.size(), tables.size(), directory);
+
+                    // a table whose schema isn't in the directory is expected to exist on the controller already
+                    Flux<BootstrapResult> tableResults = Flux.fromIterable(tables)
+                            .flatMap(table -> schemas.getOrDefault(table.dependsOn(), Mono.empty()).then(apply(table)), parallelism);
+
+                    return Flux.merge(Flux.fromIterable(schemas.values()).flatMap(schema -> schema, parallelism), tableResults);
+                })
+                .collectList()
+                .doOnNext(results -> {
+                    results.forEach(result -> log.info("{} {} {} in {} ms", result.getKind(), result.getName(), result.getAction(), result.getElapsed().toMillis()));
+                    log.info("bootstrapped {} configs in {} ms", results.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+                })
+                .flatMap(results -> saveState().thenReturn(results));
+    }
+
+    private Mono<BootstrapResult> apply(ConfigFile config) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+
+            Mono<Boolean> unchanged = config.hash().equals(appliedHashes.get(config.key()))
+                    ? exists(config)
+                    : Mono.just(false);
+
+            return unchanged
+                    .flatMap(skip -> skip
+                            ? Mono.just(BootstrapResult.Action.UNCHANGED)
+                            : create(config).thenReturn(BootstrapResult.Action.CREATED)
+                                    .onErrorResume(TableBootstrapService::isConflict, e -> update(config).thenReturn(BootstrapResult.Action.UPDATED)))
+                    .doOnNext(action -> appliedHashes.put(config.key(), config.hash()))
+                    .map(action -> new BootstrapResult(config.file(), config.kind(), config.name(), action, Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    private Mono<Boolean> exists(ConfigFile config) {
+        return config.kind() == BootstrapResult.Kind.SCHEMA
+                ? controllerService.schemaExistsAsync(config.name())
+                : controllerService.tableExistsAsync(config.name());
+    }
+
+    private Mono<PostResponse> create(ConfigFile config) {
+        return config.kind() == BootstrapResult.Kind.SCHEMA
+                ? controllerService.createSchemaAsync(config.content(), false)
+                : controllerService.createTableAsync(config.content());
+    }
+
+    private Mono<PostResponse> update(ConfigFile config) {
+        return config.kind() == BootstrapResult.Kind.SCHEMA
+                ? controllerService.updateSchemaAsync(config.name(), config.content())
+                : controllerService.updateTableAsync(config.rawTableName(), config.content());
+    }
+
+    private Mono<List<Path>> listConfigFiles(Path directory) {
+        return blocking(() -> {
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.filter(file -> file.getFileName().toString().endsWith(".json"))
+                        .filter(file -> stateFile == null || !file.toAbsolutePath().equals(stateFile.toAbsolutePath()))
+                        .sorted(Comparator.naturalOrder())
+                        .toList();
+            }
+        });
+    }
+
+    private Mono<ConfigFile> readConfig(Path file) {
+        return blocking(() -> Files.readString(file, StandardCharsets.UTF_8))
+                .flatMap(content -> {
+                    JsonNode config = jsonMapper.readTree(content);
+                    // hash the re-serialized tree so whitespace and formatting changes don't count as changes
+                    String hash = Hashing.sha256().hashString(jsonMapper.writeValueAsString(config), StandardCharsets.UTF_8).toString();
+
+                    if (config.hasNonNull("schemaName")) {
+                        String schemaName = config.get("schemaName").asString();
+                        return Mono.just(new ConfigFile(file, BootstrapResult.Kind.SCHEMA, schemaName, null, null, content, hash));
+                    }
+
+                    if (config.hasNonNull("tableName") && config.hasNonNull("tableType")) {
+                        String tableName = config.get("tableName").asString();
+                        String tableType = config.get("tableType").asString().toUpperCase(Locale.ROOT);
+                        String rawTableName = tableName.endsWith("_" + tableType) ? tableName.substring(0, tableName.length() - tableType.length() - 1) : tableName;
+
+                        JsonNode schemaName = config.path("segmentsConfig").path("schemaName");
+                        String dependsOn = schemaName.isString() ? schemaName.asString() : rawTableName;
+
+                        return Mono.just(new ConfigFile(file, BootstrapResult.Kind.TABLE, rawTableName + "_" + tableType, dependsOn, rawTableName, content, hash));
+                    }
+
+                    log.warn("skipping {}, it is neither a schema nor a table config", file);
+                    return Mono.empty();
+                });
+    }
+
+    private void loadState() {
+        if (stateFile == null || !Files.exists(stateFile)) {
+            return;
+        }
+
+        try {
+            appliedHashes.putAll(jsonMapper.readValue(stateFile.toFile(), new TypeReference<Map<String, String>>() {
+            }));
+        } catch (Exception e) {
+            log.warn("ignoring unreadable bootstrap state {}: {}", stateFile, e.getMessage());
+        }
+    }
+
+    private Mono<Void> saveState() {
+        if (stateFile == null) {
+            return Mono.empty();
+        }
+
+        return blocking(() -> {
+            jsonMapper.writeValue(stateFile.toFile(), Map.copyOf(appliedHashes));
+            return stateFile;
+        }).then();
+    }
+
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(blockingScheduler);
+    }
+
+    private static boolean isConflict(Throwable e) {
+        return e instanceof PinotHttpException http && http.getStatusCode() == 409;
+    }
+
+    // name is the schema name or the table name with type; dependsOn is the schema a table needs
+    private record ConfigFile(Path file, BootstrapResult.Kind kind, String name, String dependsOn, String rawTableName,
+                              String content, String hash) {
+
+        String key() {
+            return kind + ":" + name;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.apache.pinot.tc.cache;
+
+import org.apache.pinot.tc.api.QueryResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+@Component
+public class QueryCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCoalescer.class);
+
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final Map<QueryKey, Mono<QueryResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public QueryCoalescer(Environment environment) {
+        this.enabled = environment.getProperty("pinot.broker.coalescing.enabled", Boolean.class, false);
+        this.maxWait = environment.getProperty("pinot.broker.coalescing.max-wait", Duration.class);
+
+        if (enabled) {
+            log.info("coalescing identical in-flight queries, maxWait={}", maxWait);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public Mono<QueryResponse> execute(String query, String path, Supplier<Mono<QueryResponse>> request) {
+        if (!enabled) {
+            return request.get();
+        }
+
+        QueryKey key = QueryKey.of(query, path);
+
+        return Mono.defer(() -> {
+            Mono<QueryResponse> shared = inFlight.computeIfAbsent(key, k -> share(k, request));
+            return maxWait != null ? shared.timeout(maxWait) : shared;
+        });
+    }
+
+    private Mono<QueryResponse> share(QueryKey key, Supplier<Mono<QueryResponse>> request) {
+        AtomicReference<Mono<QueryResponse>> self = new AtomicReference<>();
+
+        // share() only cancels the broker request once every caller has cancelled, so one caller giving up
+        // (or hitting maxWait) never fails the others
+        Mono<QueryResponse> shared = request.get()
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .share();
+
+        self.set(shared);
+        return shared;
+    }
+}
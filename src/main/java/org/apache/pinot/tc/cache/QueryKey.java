@@ -0,0 +1,67 @@
+package org.apache.pinot.tc.cache;
+
+import com.google.common.base.MoreObjects;
+import org.apache.pinot.tc.api.SqlQuery;
+
+import java.util.Locale;
+import java.util.Objects;
+
+public final class QueryKey {
+
+    private final String path;
+    private final String sql;
+    private final String table;
+
+    private QueryKey(String path, String sql) {
+        this.path = path;
+        this.sql = sql;
+        this.table = normalizeTable(SqlQuery.tableName(sql));
+    }
+
+    public static QueryKey of(String query, String path) {
+        return new QueryKey(path, SqlQuery.normalize(query));
+    }
+
+    // Pinot matches table names case-insensitively by default, so Transcript and transcript share entries
+    public static String normalizeTable(String table) {
+        return table == null ? null : table.toLowerCase(Locale.ROOT);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof QueryKey other)) {
+            return false;
+        }
+
+        return path.equals(other.path) && sql.equals(other.sql);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, sql);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("path", path)
+                .add("sql", sql)
+                .toString();
+    }
+}
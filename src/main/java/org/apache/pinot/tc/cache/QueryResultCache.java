@@ -0,0 +1,119 @@
+package org.apache.pinot.tc.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.pinot.tc.api.QueryResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Component
+public class QueryResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryResultCache.class);
+
+    private static final String PROPERTY_PREFIX = "pinot.broker.cache.";
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final Environment environment;
+    private final boolean enabled;
+    private final Duration defaultTtl;
+    private final Map<String, Long> tableTtlNanos = new ConcurrentHashMap<>();
+    private final AsyncCache<QueryKey, QueryResponse> cache;
+
+    public QueryResultCache(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.environment = environment;
+        this.enabled = environment.getProperty(PROPERTY_PREFIX + "enabled", Boolean.class, false);
+        this.defaultTtl = environment.getProperty(PROPERTY_PREFIX + "ttl", Duration.class, Duration.ofSeconds(30));
+
+        DataSize maxSize = environment.getProperty(PROPERTY_PREFIX + "max-size", DataSize.class, DataSize.ofMegabytes(64));
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<QueryKey, QueryResponse>weigher(QueryResultCache::weigh)
+                .expireAfter(new Expiry<QueryKey, QueryResponse>() {
+                    @Override
+                    public long expireAfterCreate(QueryKey key, QueryResponse value, long currentTime) {
+                        return ttlNanos(key, value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(QueryKey key, QueryResponse value, long currentTime, long currentDuration) {
+                        return ttlNanos(key, value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(QueryKey key, QueryResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+
+        if (enabled) {
+            log.info("query result cache enabled: maxSize={}, ttl={}", maxSize, defaultTtl);
+            CaffeineCacheMetrics.monitor(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), cache.synchronous(), "pinot.broker.query");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Mono<QueryResponse> get(String query, String path, Supplier<Mono<QueryResponse>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        QueryKey key = QueryKey.of(query, path);
+
+        // concurrent misses for the same key share the one in-flight load
+        return Mono.fromFuture(() -> cache.get(key, (k, executor) -> loader.get().toFuture()), true);
+    }
+
+    public void invalidate(String table) {
+        String normalized = QueryKey.normalizeTable(table);
+        cache.synchronous().asMap().keySet().removeIf(key -> normalized.equals(key.getTable()));
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private long ttlNanos(QueryKey key, QueryResponse value) {
+        if (value.getExceptions() != null && !value.getExceptions().isEmpty()) {
+            return 0;
+        }
+
+        // without a single known table nothing could invalidate the entry after an ingest, so it isn't kept
+        if (key.getTable() == null) {
+            return 0;
+        }
+
+        return tableTtlNanos.computeIfAbsent(key.getTable(), table ->
+                environment.getProperty(PROPERTY_PREFIX + "ttl." + table, Duration.class, defaultTtl).toNanos());
+    }
+
+    private static int weigh(QueryKey key, QueryResponse value) {
+        long size = ENTRY_OVERHEAD_BYTES + 2L * key.getSql().length();
+
+        if (value.getResultTable() != null) {
+            size += value.getResultTable().estimateSizeInBytes();
+        }
+
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+}
@@ -0,0 +1,40 @@
+package org.apache.pinot.tc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutionConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    @Bean("pinot_virtual_executor")
+    @ConditionalOnProperty(name = "pinot.client.virtual-threads.enabled", havingValue = "true")
+    public ExecutorService virtualExecutor() {
+        log.info("running blocking client work on virtual threads");
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("pinot-virtual-", 0).factory());
+    }
+
+    // where the client does its blocking work (reading files, decoding streamed responses, building segments) so
+    // netty event loops never block; virtual threads when enabled, otherwise reactor's bounded elastic pool
+    @Bean("pinot_blocking_scheduler")
+    public Scheduler blockingScheduler(@Qualifier("pinot_virtual_executor") ObjectProvider<ExecutorService> virtualExecutor) {
+        ExecutorService executor = virtualExecutor.getIfAvailable();
+
+        if (executor == null) {
+            return Schedulers.boundedElastic();
+        }
+
+        return Schedulers.fromExecutorService(executor, "pinot-virtual");
+    }
+}
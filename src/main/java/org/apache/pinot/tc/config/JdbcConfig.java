@@ -0,0 +1,91 @@
+package org.apache.pinot.tc.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.apache.pinot.client.PinotDriver;
+import org.apache.pinot.tc.routing.BrokerEndpoint;
+import org.apache.pinot.tc.routing.BrokerRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+@Configuration
+public class JdbcConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcConfig.class);
+
+    private static final String PROPERTY_PREFIX = "pinot.jdbc.";
+
+    // the pool starts on the first getConnection(), so the context comes up even while the cluster is still starting
+    @Bean(name = "pinot_data_source", destroyMethod = "close")
+    public HikariDataSource pinotDataSource(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+
+        dataSource.setPoolName("pinot-jdbc");
+        dataSource.setDriverClassName(PinotDriver.class.getName());
+        dataSource.setJdbcUrl(jdbcUrl(environment));
+        dataSource.setMaximumPoolSize(environment.getProperty(PROPERTY_PREFIX + "maximum-pool-size", Integer.class, 10));
+        dataSource.setMinimumIdle(environment.getProperty(PROPERTY_PREFIX + "minimum-idle", Integer.class, 2));
+        dataSource.setConnectionTimeout(environment.getProperty(PROPERTY_PREFIX + "connection-timeout", Duration.class, Duration.ofSeconds(30)).toMillis());
+        dataSource.setValidationTimeout(environment.getProperty(PROPERTY_PREFIX + "validation-timeout", Duration.class, Duration.ofSeconds(5)).toMillis());
+        dataSource.setIdleTimeout(environment.getProperty(PROPERTY_PREFIX + "idle-timeout", Duration.class, Duration.ofMinutes(10)).toMillis());
+        dataSource.setMaxLifetime(environment.getProperty(PROPERTY_PREFIX + "max-lifetime", Duration.class, Duration.ofMinutes(30)).toMillis());
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry)));
+
+        // without a test query hikari validates with Connection.isValid; an empty value, as in the sample, means none
+        String testQuery = environment.getProperty(PROPERTY_PREFIX + "connection-test-query");
+
+        if (StringUtils.hasText(testQuery)) {
+            dataSource.setConnectionTestQuery(testQuery);
+        }
+
+        dataSource.addDataSourceProperty("useMultistageEngine", environment.getProperty(PROPERTY_PREFIX + "use-multistage-engine", "true"));
+
+        log.debug("pinot jdbc pool: url={}, maximumPoolSize={}", dataSource.getJdbcUrl(), dataSource.getMaximumPoolSize());
+
+        return dataSource;
+    }
+
+    // brokers= hands the driver the broker list up front, so a new connection skips the controller lookup
+    static String jdbcUrl(Environment environment) {
+        URI controller = URI.create(environment.getProperty("pinot.controller.url", "http://localhost:9000"));
+
+        String brokers = BrokerRouter.parseEndpoints(environment.getProperty("pinot.broker.url", "http://localhost:8099")).stream()
+                .map(BrokerEndpoint::getBaseUrl)
+                .map(URI::create)
+                .map(JdbcConfig::hostAndPort)
+                .collect(Collectors.joining(","));
+
+        return "jdbc:pinot://%s?brokers=%s".formatted(hostAndPort(controller), brokers);
+    }
+
+    // the driver needs an explicit port, a url like http://broker leaves URI.getPort() at -1
+    private static String hostAndPort(URI uri) {
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("no host in pinot url %s".formatted(uri));
+        }
+
+        int port = uri.getPort();
+
+        if (port < 0) {
+            port = switch (uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT)) {
+                case "http" -> 80;
+                case "https" -> 443;
+                default -> throw new IllegalArgumentException("no port in pinot url %s and no http or https scheme to default it from".formatted(uri));
+            };
+        }
+
+        return uri.getHost() + ":" + port;
+    }
+}
@@ -1,25 +1,43 @@
 package org.apache.pinot.tc.config;
 
+import io.netty.channel.ChannelOption;
+import org.apache.pinot.tc.api.PinotHttpException;
+import org.apache.pinot.tc.metrics.PinotClientMetrics;
+import org.apache.pinot.tc.routing.BrokerRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Configuration
-public class WebClientConfig {
+public class WebClientConfig implements DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(WebClientConfig.class);
 
+    private final List<Disposable> clientResources = new CopyOnWriteArrayList<>();
+
     @Bean("controller_client")
     public WebClient controllerClient(Environment environment) {
         return WebClient
                 .builder()
                 .baseUrl(environment.getProperty("pinot.controller.url", "http://localhost:9000"))
+                .clientConnector(clientHttpConnector(environment, "controller"))
                 .filters(exchangeFilterFunctions -> {
                     //exchangeFilterFunctions.add(logResponse());
                     exchangeFilterFunctions.add(errorHandler());
@@ -31,7 +49,8 @@ public class WebClientConfig {
     public WebClient brokerClient(Environment environment) {
         return WebClient
                 .builder()
-                .baseUrl(environment.getProperty("pinot.broker.url", "http://localhost:8099"))
+                .baseUrl(BrokerRouter.parseEndpoints(environment.getProperty("pinot.broker.url", "http://localhost:8099")).getFirst().getBaseUrl())
+                .clientConnector(clientHttpConnector(environment, "broker"))
                 .filters(exchangeFilterFunctions -> {
                     //exchangeFilterFunctions.add(logResponse());
                     exchangeFilterFunctions.add(errorHandler());
@@ -40,6 +59,53 @@ public class WebClientConfig {
 
     }
 
+    @Override
+    public void destroy() {
+        log.info("disposing {} web client resources", clientResources.size());
+        clientResources.forEach(Disposable::dispose);
+    }
+
+    private ClientHttpConnector clientHttpConnector(Environment environment, String component) {
+        String prefix = "pinot.%s.".formatted(component);
+        String name = "pinot-" + component;
+
+        boolean metricsEnabled = environment.getProperty(prefix + "metrics-enabled", Boolean.class, true);
+        int maxConnections = environment.getProperty(prefix + "max-connections", Integer.class, ConnectionProvider.DEFAULT_POOL_MAX_CONNECTIONS);
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(environment.getProperty(prefix + "pending-acquire-max-count", Integer.class, maxConnections * 2))
+                .pendingAcquireTimeout(environment.getProperty(prefix + "pending-acquire-timeout", Duration.class, Duration.ofSeconds(45)))
+                .maxIdleTime(environment.getProperty(prefix + "max-idle-time", Duration.class, Duration.ofSeconds(30)))
+                .maxLifeTime(environment.getProperty(prefix + "max-life-time", Duration.class, Duration.ofMinutes(10)))
+                .evictInBackground(environment.getProperty(prefix + "evict-in-background", Duration.class, Duration.ofSeconds(30)))
+                .metrics(metricsEnabled)
+                .build();
+
+        LoopResources loopResources = LoopResources.create(name, environment.getProperty(prefix + "event-loop-threads", Integer.class, LoopResources.DEFAULT_IO_WORKER_COUNT), true);
+
+        clientResources.add(connectionProvider);
+        clientResources.add(loopResources);
+
+        Duration connectTimeout = environment.getProperty(prefix + "connect-timeout", Duration.class, Duration.ofSeconds(10));
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .runOn(loopResources)
+                .compress(environment.getProperty(prefix + "compress", Boolean.class, true))
+                .keepAlive(environment.getProperty(prefix + "keep-alive", Boolean.class, true))
+                .option(ChannelOption.TCP_NODELAY, environment.getProperty(prefix + "tcp-no-delay", Boolean.class, true))
+                .option(ChannelOption.SO_KEEPALIVE, environment.getProperty(prefix + "keep-alive", Boolean.class, true))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                // connect, TLS, data sent/received (time to first byte and body read) timers per uri; the query
+                // string is dropped so ingestFromFile's batchConfigMapStr doesn't create a meter per request, and
+                // responseStore cursor ids are templated for the same reason
+                .metrics(metricsEnabled, PinotClientMetrics::uriTag);
+
+        log.debug("{} connection pool: maxConnections={}, connectTimeout={}", name, maxConnections, connectTimeout);
+
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
     private ExchangeFilterFunction logResponse() {
         return ExchangeFilterFunction.ofResponseProcessor(WebClientConfig::logBody);
     }
@@ -58,8 +124,10 @@ public class WebClientConfig {
     private ExchangeFilterFunction errorHandler() {
         return ExchangeFilterFunction.ofResponseProcessor(clientResponse -> {
             if (clientResponse.statusCode().is5xxServerError() || clientResponse.statusCode().is4xxClientError()) {
+                // an empty error body must still fail the exchange, not complete it
                 return clientResponse.bodyToMono(String.class)
-                        .flatMap(errorBody -> Mono.error(new RuntimeException(errorBody)));
+                        .defaultIfEmpty("")
+                        .flatMap(errorBody -> Mono.error(new PinotHttpException(clientResponse.statusCode().value(), errorBody)));
             } else {
                 return Mono.just(clientResponse);
             }
@@ -0,0 +1,111 @@
+package org.apache.pinot.tc.ingest;
+
+import org.apache.pinot.tc.BatchIngestConfiguration;
+import org.apache.pinot.tc.ControllerService;
+import org.apache.pinot.tc.api.PinotHttpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class BulkIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIngestService.class);
+
+    private static final String PROPERTY_PREFIX = "pinot.ingest.bulk.";
+
+    private final ControllerService controllerService;
+    private final DataSize chunkSize;
+    private final int parallelism;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Scheduler blockingScheduler;
+
+    public BulkIngestService(ControllerService controllerService, Environment environment,
+                             @Qualifier("pinot_blocking_scheduler") Scheduler blockingScheduler) {
+        this.controllerService = controllerService;
+        this.blockingScheduler = blockingScheduler;
+        this.chunkSize = environment.getProperty(PROPERTY_PREFIX + "chunk-size", DataSize.class, DataSize.ofMegabytes(128));
+        this.parallelism = environment.getProperty(PROPERTY_PREFIX + "parallelism", Integer.class, Runtime.getRuntime().availableProcessors());
+        this.maxRetries = environment.getProperty(PROPERTY_PREFIX + "max-retries", Integer.class, 3);
+        this.retryBackoff = environment.getProperty(PROPERTY_PREFIX + "retry-backoff", Duration.class, Duration.ofSeconds(1));
+    }
+
+    public List<ChunkResult> ingest(String tableName, BatchIngestConfiguration configuration, Path file) {
+        return ingestAsync(tableName, configuration, file).collectList().block();
+    }
+
+    public Flux<ChunkResult> ingestAsync(String tableName, BatchIngestConfiguration configuration, Path file) {
+        return ingestAsync(tableName, configuration, file, chunkSize);
+    }
+
+    public Flux<ChunkResult> ingestAsync(String tableName, BatchIngestConfiguration configuration, Path file, DataSize chunkSize) {
+        return Mono.fromCallable(() -> FileChunker.split(file, chunkSize.toBytes(), hasHeader(configuration)))
+                .subscribeOn(blockingScheduler)
+                .flatMapMany(chunker -> {
+                    String runId = Long.toString(System.currentTimeMillis());
+                    int chunkCount = chunker.getChunks().size();
+                    long totalBytes = chunker.getSize();
+                    AtomicInteger completedChunks = new AtomicInteger();
+                    AtomicLong completedBytes = new AtomicLong();
+
+                    log.info("ingesting {} into {} as {} chunks ({} bytes) with parallelism {}", file, tableName, chunkCount, totalBytes, parallelism);
+
+                    return Flux.fromIterable(chunker.getChunks())
+                            .flatMap(chunk -> upload(tableName, configuration.withSegmentNamePostfix(runId + "_" + chunk.getIndex()), chunker, chunk), parallelism)
+                            .doOnNext(result -> log.info("ingested chunk {} of {} in {} ({} attempt(s)), {}/{} chunks, {}/{} bytes",
+                                    result.getChunk().getIndex(), file.getFileName(), result.getElapsed(), result.getAttempts(),
+                                    completedChunks.incrementAndGet(), chunkCount,
+                                    completedBytes.addAndGet(result.getChunk().getLength()), totalBytes));
+                });
+    }
+
+    private Mono<ChunkResult> upload(String tableName, BatchIngestConfiguration configuration, FileChunker chunker, FileChunk chunk) {
+        String fileName = chunkFileName(chunker.getPath(), chunk);
+        AtomicInteger attempts = new AtomicInteger();
+
+        return Mono.defer(() -> {
+                    attempts.incrementAndGet();
+                    return controllerService.ingestAsync(tableName, configuration, fileName, chunker.read(chunk, blockingScheduler));
+                })
+                .doOnError(e -> log.warn("chunk {} failed on attempt {}: {}", fileName, attempts.get(), e.getMessage()))
+                .retryWhen(Retry.backoff(maxRetries, retryBackoff).filter(BulkIngestService::isRetryable))
+                .elapsed()
+                .map(elapsed -> new ChunkResult(chunk, elapsed.getT2(), attempts.get(), Duration.ofMillis(elapsed.getT1())));
+    }
+
+    // a rejected table, schema or chunk fails the same way on every attempt, only transient failures are retried
+    private static boolean isRetryable(Throwable e) {
+        return e instanceof WebClientRequestException
+                || e instanceof TimeoutException
+                || (e instanceof PinotHttpException http && http.isRetryable());
+    }
+
+    private static boolean hasHeader(BatchIngestConfiguration configuration) {
+        return "csv".equalsIgnoreCase(configuration.getInputFormat());
+    }
+
+    private static String chunkFileName(Path file, FileChunk chunk) {
+        String name = file.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+
+        return extension < 0
+                ? "%s-%d".formatted(name, chunk.getIndex())
+                : "%s-%d%s".formatted(name.substring(0, extension), chunk.getIndex(), name.substring(extension));
+    }
+}
@@ -0,0 +1,47 @@
+package org.apache.pinot.tc.ingest;
+
+import com.google.common.base.MoreObjects;
+import org.apache.pinot.tc.api.PostResponse;
+
+import java.time.Duration;
+
+public class ChunkResult {
+
+    private final FileChunk chunk;
+    private final PostResponse response;
+    private final int attempts;
+    private final Duration elapsed;
+
+    public ChunkResult(FileChunk chunk, PostResponse response, int attempts, Duration elapsed) {
+        this.chunk = chunk;
+        this.response = response;
+        this.attempts = attempts;
+        this.elapsed = elapsed;
+    }
+
+    public FileChunk getChunk() {
+        return chunk;
+    }
+
+    public PostResponse getResponse() {
+        return response;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("chunk", chunk)
+                .add("response", response)
+                .add("attempts", attempts)
+                .add("elapsed", elapsed)
+                .toString();
+    }
+}
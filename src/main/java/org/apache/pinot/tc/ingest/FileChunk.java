@@ -0,0 +1,37 @@
+package org.apache.pinot.tc.ingest;
+
+import com.google.common.base.MoreObjects;
+
+public class FileChunk {
+
+    private final int index;
+    private final long offset;
+    private final long length;
+
+    public FileChunk(int index, long offset, long length) {
+        this.index = index;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("index", index)
+                .add("offset", offset)
+                .add("length", length)
+                .toString();
+    }
+}
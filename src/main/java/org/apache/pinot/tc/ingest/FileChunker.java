@@ -0,0 +1,137 @@
+package org.apache.pinot.tc.ingest;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits a line oriented file (CSV, JSON lines) into row aligned chunks. Boundaries are found by scanning a small
+ * memory mapped window past each target offset for the next newline, so the file is never read end to end. Records
+ * with embedded newlines (quoted CSV values) are not supported.
+ */
+public final class FileChunker {
+
+    private static final int SCAN_WINDOW = 64 * 1024;
+
+    private final Path path;
+    private final byte[] header;
+    private final List<FileChunk> chunks;
+
+    private FileChunker(Path path, byte[] header, List<FileChunk> chunks) {
+        this.path = path;
+        this.header = header;
+        this.chunks = Collections.unmodifiableList(chunks);
+    }
+
+    public static FileChunker split(Path path, long chunkSize, boolean includeHeader) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            byte[] header = null;
+
+            if (includeHeader && size > 0) {
+                start = nextLineStart(channel, 0, size);
+                header = new byte[Math.toIntExact(start)];
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, start).get(header);
+            }
+
+            // a chunk is mapped as a single buffer, so it has to fit in an int along with the header
+            long maxChunkSize = Math.max(1, Math.min(chunkSize, Integer.MAX_VALUE - SCAN_WINDOW - (header != null ? header.length : 0)));
+
+            List<FileChunk> chunks = new ArrayList<>();
+
+            while (start < size) {
+                long end = start + maxChunkSize >= size ? size : nextLineStart(channel, start + maxChunkSize - 1, size);
+                chunks.add(new FileChunk(chunks.size(), start, end - start));
+                start = end;
+            }
+
+            return new FileChunker(path, header, chunks);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public byte[] getHeader() {
+        return header;
+    }
+
+    public List<FileChunk> getChunks() {
+        return chunks;
+    }
+
+    public long getSize() {
+        return chunks.stream().mapToLong(FileChunk::getLength).sum();
+    }
+
+    public Flux<DataBuffer> read(FileChunk chunk, Scheduler scheduler) {
+        // every subscription maps the chunk again, so a retried upload can simply re-subscribe
+        return Mono.fromCallable(() -> map(chunk))
+                .subscribeOn(scheduler)
+                .flatMapMany(rows -> header != null
+                        ? Flux.just(wrap(ByteBuffer.wrap(header)), wrap(rows))
+                        : Flux.just(wrap(rows)));
+    }
+
+    public void copyTo(FileChunk chunk, Path target) throws IOException {
+        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            if (header != null) {
+                out.write(ByteBuffer.wrap(header));
+            }
+
+            long position = chunk.getOffset();
+            long remaining = chunk.getLength();
+
+            while (remaining > 0) {
+                long transferred = source.transferTo(position, remaining, out);
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private MappedByteBuffer map(FileChunk chunk) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, chunk.getOffset(), chunk.getLength());
+        }
+    }
+
+    private static DataBuffer wrap(ByteBuffer buffer) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(buffer);
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        long windowStart = position;
+
+        while (windowStart < size) {
+            int length = (int) Math.min(SCAN_WINDOW, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+
+            for (int i = 0; i < length; i++) {
+                if (window.get(i) == '\n') {
+                    return windowStart + i + 1;
+                }
+            }
+
+            windowStart += length;
+        }
+
+        return size;
+    }
+}
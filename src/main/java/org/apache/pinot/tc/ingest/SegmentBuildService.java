@@ -0,0 +1,146 @@
+package org.apache.pinot.tc.ingest;
+
+import org.apache.pinot.common.utils.TarCompressionUtils;
+import org.apache.pinot.plugin.inputformat.csv.CSVRecordReaderConfig;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.FileFormat;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.apache.pinot.tc.BatchIngestConfiguration;
+import org.apache.pinot.tc.ControllerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds Pinot segments on the client and pushes the finished tarballs, so the controller only has to do metadata
+ * work instead of parsing the input and creating the segment itself. The input is split into one row aligned chunk
+ * per build thread and every chunk becomes its own segment.
+ */
+@Service
+public class SegmentBuildService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentBuildService.class);
+
+    private static final String PROPERTY_PREFIX = "pinot.ingest.segment.";
+
+    private final ControllerService controllerService;
+    private final int parallelism;
+    private final Path workDir;
+    private final Scheduler buildScheduler;
+    private final Scheduler blockingScheduler;
+
+    public SegmentBuildService(ControllerService controllerService, Environment environment,
+                               @Qualifier("pinot_blocking_scheduler") Scheduler blockingScheduler) {
+        this.controllerService = controllerService;
+        this.blockingScheduler = blockingScheduler;
+        this.parallelism = environment.getProperty(PROPERTY_PREFIX + "parallelism", Integer.class, Runtime.getRuntime().availableProcessors());
+        this.workDir = Path.of(environment.getProperty(PROPERTY_PREFIX + "work-dir", System.getProperty("java.io.tmpdir")));
+        this.buildScheduler = Schedulers.newParallel("pinot-segment-build", parallelism);
+    }
+
+    public List<ChunkResult> buildAndPush(String schema, String tableConfig, BatchIngestConfiguration configuration, Path file) {
+        return buildAndPushAsync(schema, tableConfig, configuration, file).collectList().block();
+    }
+
+    public Flux<ChunkResult> buildAndPushAsync(String schema, String tableConfig, BatchIngestConfiguration configuration, Path file) {
+        return Flux.using(
+                        () -> Files.createTempDirectory(workDir, "pinot-segments-"),
+                        dir -> Mono.fromCallable(() -> prepare(schema, tableConfig, configuration, file, dir))
+                                .flatMapMany(build -> {
+                                    log.info("building {} segments for {} from {} with parallelism {}", build.chunker().getChunks().size(),
+                                            build.tableConfig().getTableName(), file, parallelism);
+
+                                    return Flux.fromIterable(build.chunker().getChunks())
+                                            .flatMap(chunk -> buildAndPush(build, chunk), parallelism);
+                                }),
+                        dir -> FileSystemUtils.deleteRecursively(dir.toFile()))
+                .subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    public void destroy() {
+        buildScheduler.dispose();
+    }
+
+    private Mono<ChunkResult> buildAndPush(SegmentBuild build, FileChunk chunk) {
+        String tableName = TableNameBuilder.extractRawTableName(build.tableConfig().getTableName());
+        String tableType = build.tableConfig().getTableType().name();
+
+        return Mono.fromCallable(() -> buildSegment(build, chunk))
+                .subscribeOn(buildScheduler)
+                .flatMap(segmentTarFile -> controllerService.uploadSegmentAsync(tableName, tableType, segmentTarFile))
+                .elapsed()
+                .map(elapsed -> new ChunkResult(chunk, elapsed.getT2(), 1, Duration.ofMillis(elapsed.getT1())))
+                .doOnNext(result -> log.info("built and pushed segment {} of {} in {}: {}", chunk.getIndex(), tableName, result.getElapsed(), result.getResponse()));
+    }
+
+    private Path buildSegment(SegmentBuild build, FileChunk chunk) throws Exception {
+        Path input = build.dir().resolve("input-" + chunk.getIndex());
+        build.chunker().copyTo(chunk, input);
+
+        FileFormat format = FileFormat.valueOf(build.configuration().getInputFormat().toUpperCase(Locale.ROOT));
+
+        SegmentGeneratorConfig segmentConfig = new SegmentGeneratorConfig(build.tableConfig(), build.schema());
+        segmentConfig.setInputFilePath(input.toString());
+        segmentConfig.setFormat(format);
+        segmentConfig.setOutDir(build.dir().resolve("segment-" + chunk.getIndex()).toString());
+        segmentConfig.setSegmentNamePostfix(build.runId());
+        segmentConfig.setSequenceId(chunk.getIndex());
+
+        if (format == FileFormat.CSV && build.configuration().getDelimiter() != null) {
+            CSVRecordReaderConfig readerConfig = new CSVRecordReaderConfig();
+            readerConfig.setDelimiter(build.configuration().getDelimiter().charAt(0));
+            segmentConfig.setReaderConfig(readerConfig);
+        }
+
+        SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+        driver.init(segmentConfig);
+        driver.build();
+
+        File segmentDir = driver.getOutputDirectory();
+        Path segmentTarFile = build.dir().resolve(driver.getSegmentName() + TarCompressionUtils.TAR_GZ_FILE_EXTENSION);
+        TarCompressionUtils.createCompressedTarFile(segmentDir, segmentTarFile.toFile());
+
+        log.debug("built segment {} from chunk {}", driver.getSegmentName(), chunk);
+
+        Files.delete(input);
+        FileSystemUtils.deleteRecursively(segmentDir);
+
+        return segmentTarFile;
+    }
+
+    private SegmentBuild prepare(String schema, String tableConfig, BatchIngestConfiguration configuration, Path file, Path dir) throws Exception {
+        long chunkSize = Math.max(1, (Files.size(file) + parallelism - 1) / parallelism);
+
+        return new SegmentBuild(
+                Schema.fromString(schema),
+                JsonUtils.stringToObject(tableConfig, TableConfig.class),
+                configuration,
+                FileChunker.split(file, chunkSize, "csv".equalsIgnoreCase(configuration.getInputFormat())),
+                dir,
+                Long.toString(System.currentTimeMillis()));
+    }
+
+    private record SegmentBuild(Schema schema, TableConfig tableConfig, BatchIngestConfiguration configuration,
+                                FileChunker chunker, Path dir, String runId) {
+    }
+}
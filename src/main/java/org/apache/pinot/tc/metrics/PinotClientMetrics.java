@@ -0,0 +1,128 @@
+package org.apache.pinot.tc.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pinot.tc.api.QueryResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+@Component
+public class PinotClientMetrics {
+
+    public static final String REQUESTS = "pinot.client.requests";
+    public static final String ENCODE = "pinot.client.encode";
+    public static final String DECODE = "pinot.client.decode";
+    public static final String DOCS_SCANNED = "pinot.query.docs.scanned";
+    public static final String ENTRIES_SCANNED_IN_FILTER = "pinot.query.entries.scanned.in.filter";
+    public static final String SEGMENTS_PROCESSED = "pinot.query.segments.processed";
+    public static final String SERVER_TIME = "pinot.query.server.time";
+
+    private static final String UNKNOWN_TABLE = "unknown";
+
+    private static final Pattern RESPONSE_STORE_ID = Pattern.compile("responseStore/[^/]+");
+
+    private final MeterRegistry registry;
+
+    public PinotClientMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    // cursor paths carry a request id per query, templated so each cursor doesn't register its own meters
+    public static String uriTag(String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+
+        return RESPONSE_STORE_ID.matcher(path).replaceFirst("responseStore/{requestId}");
+    }
+
+    public <T> Mono<T> timed(String endpoint, Mono<T> request) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+
+            return request.doFinally(signal -> sample.stop(requestTimer(endpoint, signal)));
+        });
+    }
+
+    public <T> Flux<T> timed(String endpoint, Flux<T> request) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+
+            return request.doFinally(signal -> sample.stop(requestTimer(endpoint, signal)));
+        });
+    }
+
+    public <T> T encode(String endpoint, Supplier<T> encoder) {
+        return phase(ENCODE, endpoint, encoder);
+    }
+
+    public <T> T decode(String endpoint, Supplier<T> decoder) {
+        return phase(DECODE, endpoint, decoder);
+    }
+
+    public void recordQueryStats(String table, QueryResponse response) {
+        String tableTag = table != null ? table : UNKNOWN_TABLE;
+
+        summary(DOCS_SCANNED, tableTag).record(response.getNumDocsScanned());
+        summary(ENTRIES_SCANNED_IN_FILTER, tableTag).record(response.getNumEntriesScannedInFilter());
+        summary(SEGMENTS_PROCESSED, tableTag).record(response.getNumSegmentsProcessed());
+
+        Timer.builder(SERVER_TIME)
+                .description("Broker reported query time (timeUsedMs)")
+                .tag("table", tableTag)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(Duration.ofMillis(response.getTimeUsedMs()));
+    }
+
+    private <T> T phase(String name, String endpoint, Supplier<T> work) {
+        long start = System.nanoTime();
+
+        try {
+            return work.get();
+        } finally {
+            Timer.builder(name)
+                    .tag("endpoint", endpoint)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer requestTimer(String endpoint, SignalType signal) {
+        return Timer.builder(REQUESTS)
+                .description("End to end client time of a Pinot REST call")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome(signal))
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private DistributionSummary summary(String name, String table) {
+        return DistributionSummary.builder(name)
+                .tag("table", table)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> signal.name().toLowerCase();
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package org.apache.pinot.tc.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Component
+public class BrokerDiscovery implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BrokerDiscovery.class);
+
+    private final WebClient controllerClient;
+    private final BrokerRouter brokerRouter;
+    private final JsonMapper jsonMapper;
+    private final boolean enabled;
+    private final Duration interval;
+    private final String scheme;
+
+    private Disposable subscription;
+
+    public BrokerDiscovery(@Qualifier("controller_client") WebClient controllerClient, BrokerRouter brokerRouter, JsonMapper jsonMapper, Environment environment) {
+        this.controllerClient = controllerClient;
+        this.brokerRouter = brokerRouter;
+        this.jsonMapper = jsonMapper;
+        this.enabled = environment.getProperty("pinot.broker.discovery.enabled", Boolean.class, false);
+        this.interval = environment.getProperty("pinot.broker.discovery.interval", Duration.class, Duration.ofSeconds(30));
+        this.scheme = environment.getProperty("pinot.broker.discovery.scheme", "http");
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            log.info("discovering brokers from the controller every {}", interval);
+
+            subscription = Flux.interval(Duration.ZERO, interval)
+                    .concatMap(tick -> discoverBrokers()
+                            .onErrorResume(e -> {
+                                log.warn("broker discovery failed: {}", e.getMessage());
+                                return Mono.empty();
+                            }))
+                    .subscribe(brokerRouter::updateEndpoints);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    public Mono<Set<String>> discoverBrokers() {
+        return controllerClient.get()
+                .uri(uriBuilder -> uriBuilder.path("v2/brokers/tables").queryParam("state", "ONLINE").build())
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(response -> {
+                    Set<String> brokerUrls = new LinkedHashSet<>();
+
+                    for (JsonNode brokers : jsonMapper.readTree(response)) {
+                        for (JsonNode broker : brokers) {
+                            brokerUrls.add("%s://%s:%d".formatted(scheme, broker.get("host").asString(), broker.get("port").asInt()));
+                        }
+                    }
+
+                    log.debug("discovered brokers: {}", brokerUrls);
+
+                    return brokerUrls;
+                });
+    }
+}
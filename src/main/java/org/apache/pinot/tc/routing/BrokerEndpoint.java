@@ -0,0 +1,89 @@
+package org.apache.pinot.tc.routing;
+
+import com.google.common.base.MoreObjects;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BrokerEndpoint {
+
+    private final String baseUrl;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double latencyEwmaNanos;
+    private volatile int consecutiveFailures;
+    private volatile boolean ejected;
+    private volatile long ejectedUntilNanos;
+
+    public BrokerEndpoint(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public URI resolve(String path) {
+        return URI.create(baseUrl + "/" + path);
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getLatencyEwmaNanos() {
+        return latencyEwmaNanos;
+    }
+
+    public boolean isAvailable(long nowNanos) {
+        return !ejected || nowNanos - ejectedUntilNanos >= 0;
+    }
+
+    boolean hasLatency() {
+        return latencyEwmaNanos > 0;
+    }
+
+    // a broker without samples yet is costed at the seed rather than 0, so it doesn't win every comparison
+    double cost(double seedLatencyNanos) {
+        double latency = latencyEwmaNanos > 0 ? latencyEwmaNanos : seedLatencyNanos;
+        return latency * (inFlight.get() + 1);
+    }
+
+    void begin() {
+        inFlight.incrementAndGet();
+    }
+
+    void end() {
+        inFlight.decrementAndGet();
+    }
+
+    synchronized void recordLatency(long latencyNanos, double alpha) {
+        latencyEwmaNanos = latencyEwmaNanos == 0 ? latencyNanos : latencyEwmaNanos + alpha * (latencyNanos - latencyEwmaNanos);
+    }
+
+    synchronized void recordSuccess(long latencyNanos, double alpha) {
+        recordLatency(latencyNanos, alpha);
+        consecutiveFailures = 0;
+        ejected = false;
+    }
+
+    synchronized void recordFailure(long nowNanos, int failureThreshold, long ejectionNanos) {
+        consecutiveFailures++;
+
+        if (consecutiveFailures >= failureThreshold) {
+            ejectedUntilNanos = nowNanos + ejectionNanos;
+            ejected = true;
+            consecutiveFailures = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("baseUrl", baseUrl)
+                .add("inFlight", inFlight.get())
+                .add("latencyEwmaNanos", latencyEwmaNanos)
+                .add("consecutiveFailures", consecutiveFailures)
+                .toString();
+    }
+}
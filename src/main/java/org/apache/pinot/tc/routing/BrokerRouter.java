@@ -0,0 +1,281 @@
+package org.apache.pinot.tc.routing;
+
+import org.apache.pinot.tc.api.PinotHttpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+@Component
+public class BrokerRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(BrokerRouter.class);
+
+    private final int maxRetries;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+    private final double ewmaAlpha;
+    private final long initialLatencyNanos;
+    private final long failurePenaltyNanos;
+    private final boolean hedgingEnabled;
+    private final Duration minHedgeDelay;
+    private final RetryBudget retryBudget;
+    private final LatencyTracker latencyTracker;
+
+    private volatile List<BrokerEndpoint> endpoints;
+
+    public BrokerRouter(Environment environment) {
+        this.maxRetries = environment.getProperty("pinot.broker.routing.max-retries", Integer.class, 1);
+        this.failureThreshold = environment.getProperty("pinot.broker.routing.failure-threshold", Integer.class, 3);
+        this.ejectionNanos = environment.getProperty("pinot.broker.routing.ejection-time", Duration.class, Duration.ofSeconds(30)).toNanos();
+        this.ewmaAlpha = environment.getProperty("pinot.broker.routing.ewma-alpha", Double.class, 0.3);
+        this.initialLatencyNanos = environment.getProperty("pinot.broker.routing.initial-latency", Duration.class, Duration.ofMillis(100)).toNanos();
+        this.failurePenaltyNanos = environment.getProperty("pinot.broker.routing.failure-penalty", Duration.class, Duration.ofSeconds(1)).toNanos();
+        this.endpoints = parseEndpoints(environment.getProperty("pinot.broker.url", "http://localhost:8099"));
+
+        this.retryBudget = new RetryBudget(
+                environment.getProperty("pinot.broker.routing.retry-budget.ratio", Double.class, 0.1),
+                environment.getProperty("pinot.broker.routing.retry-budget.min-per-second", Double.class, 10.0));
+
+        this.hedgingEnabled = environment.getProperty("pinot.broker.hedging.enabled", Boolean.class, false);
+        this.minHedgeDelay = environment.getProperty("pinot.broker.hedging.min-delay", Duration.class, Duration.ofMillis(10));
+        this.latencyTracker = new LatencyTracker(
+                environment.getProperty("pinot.broker.hedging.window", Integer.class, 1024),
+                environment.getProperty("pinot.broker.hedging.percentile", Double.class, 0.95));
+
+        log.debug("routing queries across brokers: {}, hedging={}, retryBudget={}", endpoints, hedgingEnabled, retryBudget);
+    }
+
+    public static List<BrokerEndpoint> parseEndpoints(String brokerUrls) {
+        return StringUtils.commaDelimitedListToSet(brokerUrls).stream()
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .map(BrokerEndpoint::new)
+                .toList();
+    }
+
+    public List<BrokerEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public synchronized void updateEndpoints(Collection<String> brokerUrls) {
+        if (brokerUrls.isEmpty()) {
+            log.warn("ignoring empty broker list, keeping {}", endpoints);
+            return;
+        }
+
+        Map<String, BrokerEndpoint> current = new LinkedHashMap<>();
+        endpoints.forEach(endpoint -> current.put(endpoint.getBaseUrl(), endpoint));
+
+        List<BrokerEndpoint> updated = new ArrayList<>(brokerUrls.size());
+
+        for (String brokerUrl : brokerUrls) {
+            BrokerEndpoint candidate = new BrokerEndpoint(brokerUrl);
+            updated.add(current.getOrDefault(candidate.getBaseUrl(), candidate));
+        }
+
+        if (!updated.equals(endpoints)) {
+            log.info("broker endpoints changed to {}", updated);
+        }
+
+        this.endpoints = List.copyOf(updated);
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public Duration getHedgeDelay() {
+        Duration percentile = latencyTracker.getPercentile();
+        return percentile == null || percentile.compareTo(minHedgeDelay) < 0 ? minHedgeDelay : percentile;
+    }
+
+    public BrokerEndpoint select() {
+        return select(Set.of());
+    }
+
+    public <T> Mono<T> execute(Function<BrokerEndpoint, Mono<T>> request) {
+        return Mono.defer(() -> {
+            retryBudget.deposit();
+
+            Set<BrokerEndpoint> tried = ConcurrentHashMap.newKeySet();
+            Mono<T> primary = attempt(request, tried, 0);
+
+            // no hedging until the tracker has seen enough queries to know what slow looks like
+            if (!hedgingEnabled || latencyTracker.getPercentile() == null) {
+                return primary;
+            }
+
+            Duration delay = getHedgeDelay();
+            AtomicBoolean primaryDone = new AtomicBoolean();
+            AtomicBoolean hedged = new AtomicBoolean();
+            AtomicReference<Throwable> deferred = new AtomicReference<>();
+
+            // a retryable failure waits for a hedge already in flight; anything else fails the query at once and
+            // cancels the pending delay, so a bad query is never sent twice
+            Mono<T> first = primary
+                    .doOnTerminate(() -> primaryDone.set(true))
+                    .onErrorResume(e -> hedged.get() && isRetryable(e), e -> {
+                        deferred.set(e);
+                        return Mono.empty();
+                    });
+
+            Mono<T> hedge = Mono.delay(delay).flatMap(tick -> {
+                if (primaryDone.get()) {
+                    return Mono.<T>empty();
+                }
+
+                if (!retryBudget.tryWithdraw()) {
+                    log.debug("retry budget exhausted, not hedging after {}", delay);
+                    return Mono.<T>empty();
+                }
+
+                log.debug("no response after {}, sending hedged request", delay);
+                hedged.set(true);
+
+                // while the primary is still out its answer decides, otherwise this error is the query's
+                return attempt(request, tried, maxRetries)
+                        .onErrorResume(e -> !primaryDone.get(), e -> {
+                            deferred.compareAndSet(null, e);
+                            return Mono.empty();
+                        });
+            });
+
+            // first value wins and cancels the other request
+            return Flux.merge(first, hedge)
+                    .next()
+                    .switchIfEmpty(Mono.defer(() -> deferred.get() != null ? Mono.<T>error(deferred.get()) : Mono.<T>empty()));
+        });
+    }
+
+    public <T> Flux<T> executeMany(Function<BrokerEndpoint, Flux<T>> request) {
+        return Flux.defer(() -> {
+            BrokerEndpoint endpoint = select();
+            endpoint.begin();
+            long start = System.nanoTime();
+
+            return request.apply(endpoint)
+                    .doOnError(e -> recordError(endpoint, e, System.nanoTime() - start))
+                    .doFinally(signal -> endpoint.end());
+        });
+    }
+
+    private <T> Mono<T> attempt(Function<BrokerEndpoint, Mono<T>> request, Set<BrokerEndpoint> tried, int retry) {
+        BrokerEndpoint endpoint = select(tried);
+        tried.add(endpoint);
+
+        return Mono.defer(() -> {
+                    endpoint.begin();
+                    long start = System.nanoTime();
+
+                    return request.apply(endpoint)
+                            .doOnSuccess(value -> {
+                                long elapsed = System.nanoTime() - start;
+                                endpoint.recordSuccess(elapsed, ewmaAlpha);
+                                latencyTracker.record(elapsed);
+                            })
+                            .doOnError(e -> recordError(endpoint, e, System.nanoTime() - start))
+                            // cancelled by a client timeout or a faster hedge: it took at least this long, which is
+                            // what makes a hung broker look expensive
+                            .doOnCancel(() -> endpoint.recordLatency(System.nanoTime() - start, ewmaAlpha))
+                            .doFinally(signal -> endpoint.end());
+                })
+                .onErrorResume(e -> retry < maxRetries && isRetryable(e) && retryBudget.tryWithdraw(), e -> {
+                    log.warn("query against {} failed, retrying: {}", endpoint.getBaseUrl(), e.getMessage());
+                    return attempt(request, tried, retry + 1);
+                });
+    }
+
+    private BrokerEndpoint select(Set<BrokerEndpoint> excluded) {
+        List<BrokerEndpoint> all = endpoints;
+        long now = System.nanoTime();
+
+        List<BrokerEndpoint> candidates = new ArrayList<>(all.size());
+
+        for (BrokerEndpoint endpoint : all) {
+            if (!excluded.contains(endpoint) && endpoint.isAvailable(now)) {
+                candidates.add(endpoint);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            // every broker is ejected or already tried, so fall back to whichever is least loaded
+            for (BrokerEndpoint endpoint : all) {
+                if (!excluded.contains(endpoint)) {
+                    candidates.add(endpoint);
+                }
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            candidates.addAll(all);
+        }
+
+        if (candidates.size() == 1) {
+            return candidates.getFirst();
+        }
+
+        // power of two choices: compare two random brokers and take the one with the lower latency-weighted load
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+
+        if (second >= first) {
+            second++;
+        }
+
+        BrokerEndpoint a = candidates.get(first);
+        BrokerEndpoint b = candidates.get(second);
+        double seed = seedLatency(all);
+
+        return a.cost(seed) <= b.cost(seed) ? a : b;
+    }
+
+    // a new or never answering broker is assumed to be as fast as the others on average, or the configured
+    // initial latency when none has answered yet
+    private double seedLatency(List<BrokerEndpoint> all) {
+        double sum = 0;
+        int count = 0;
+
+        for (BrokerEndpoint endpoint : all) {
+            if (endpoint.hasLatency()) {
+                sum += endpoint.getLatencyEwmaNanos();
+                count++;
+            }
+        }
+
+        return count > 0 ? sum / count : initialLatencyNanos;
+    }
+
+    private void recordError(BrokerEndpoint endpoint, Throwable e, long elapsedNanos) {
+        if (isBrokerFailure(e)) {
+            endpoint.recordLatency(Math.max(elapsedNanos, failurePenaltyNanos), ewmaAlpha);
+            endpoint.recordFailure(System.nanoTime(), failureThreshold, ejectionNanos);
+        }
+    }
+
+    private static boolean isBrokerFailure(Throwable e) {
+        return e instanceof WebClientRequestException || (e instanceof PinotHttpException http && http.isServerError());
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        return e instanceof WebClientRequestException || (e instanceof PinotHttpException http && http.isRetryable());
+    }
+}
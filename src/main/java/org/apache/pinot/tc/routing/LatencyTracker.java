@@ -0,0 +1,51 @@
+package org.apache.pinot.tc.routing;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// sliding window of recent query latencies; the percentile is recomputed at most once per refresh interval so
+// sorting the window never lands on every request
+public class LatencyTracker {
+
+    private static final int MIN_SAMPLES = 20;
+    private static final long REFRESH_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final double percentile;
+    private final long[] samples;
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile long cachedNanos = -1;
+    private volatile long cachedAt;
+
+    public LatencyTracker(int window, double percentile) {
+        this.samples = new long[window];
+        this.percentile = percentile;
+    }
+
+    public void record(long nanos) {
+        long index = count.getAndIncrement();
+        samples[(int) (index % samples.length)] = nanos;
+    }
+
+    // empty until the window has enough samples to say anything useful about the tail
+    public Duration getPercentile() {
+        int size = (int) Math.min(count.get(), samples.length);
+
+        if (size < MIN_SAMPLES) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+
+        if (cachedNanos < 0 || now - cachedAt > REFRESH_NANOS) {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+
+            cachedNanos = sorted[Math.min(size - 1, (int) Math.ceil(percentile * size) - 1)];
+            cachedAt = now;
+        }
+
+        return Duration.ofNanos(cachedNanos);
+    }
+}
@@ -0,0 +1,53 @@
+package org.apache.pinot.tc.routing;
+
+import com.google.common.base.MoreObjects;
+
+// token bucket shared by retries and hedged requests: every query deposits a fraction of a token and every extra
+// request withdraws a whole one, so extra load stays a bounded share of traffic while brokers are struggling
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double maxBalance;
+
+    private double balance;
+    private long lastRefillNanos;
+
+    public RetryBudget(double ratio, double minPerSecond) {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        this.maxBalance = Math.max(10, minPerSecond * 10);
+        this.balance = minPerSecond;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public synchronized void deposit() {
+        balance = Math.min(maxBalance, balance + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        long now = System.nanoTime();
+        balance = Math.min(maxBalance, balance + (now - lastRefillNanos) / 1e9 * minPerSecond);
+        lastRefillNanos = now;
+
+        if (balance < 1) {
+            return false;
+        }
+
+        balance -= 1;
+        return true;
+    }
+
+    public synchronized double getBalance() {
+        return balance;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("ratio", ratio)
+                .add("minPerSecond", minPerSecond)
+                .add("balance", getBalance())
+                .toString();
+    }
+}
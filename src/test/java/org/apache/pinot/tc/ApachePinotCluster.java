@@ -13,6 +13,17 @@ import org.testcontainers.localstack.LocalStackContainer;
 import org.testcontainers.utility.DockerImageName;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class ApachePinotCluster implements Startable {
@@ -49,17 +60,25 @@ public class ApachePinotCluster implements Startable {
 
     private final GenericContainer<?> pinotController;
 
-    private final GenericContainer<?> pinotBroker;
+    private final List<GenericContainer<?>> pinotBrokers = new ArrayList<>();
 
-    private final GenericContainer<?> pinotServer;
+    private final List<GenericContainer<?>> pinotServers = new ArrayList<>();
 
-    private GenericContainer<?> pinotMinion;
+    private final List<GenericContainer<?>> pinotMinions = new ArrayList<>();
 
     private LocalStackContainer localStack;
 
-    private final boolean enableMinion;
+    private final AtomicBoolean started = new AtomicBoolean();
 
-    private final boolean enableLocalstack;
+    // one cluster (with minion and localstack) for every test class in the JVM; it's stopped on exit and test
+    // classes clean up with ControllerService.reset() instead of restarting containers
+    public static ApachePinotCluster shared() {
+        return SharedCluster.INSTANCE;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
 
     public ApachePinotCluster(Boolean enableMinion, Boolean enableLocalstack) {
         this(DEFAULT_ZOOKEEPER_VERSION, DEFAULT_PINOT_VERSION, Network.newNetwork(), enableMinion, enableLocalstack);
@@ -70,11 +89,19 @@ public class ApachePinotCluster implements Startable {
     }
 
     public ApachePinotCluster(String zookeeperVersion, String pinotVersion, Network network, Boolean enableMinion, Boolean enableLocalstack) {
-        this.enableMinion = enableMinion;
-        this.enableLocalstack = enableLocalstack;
+        this(builder()
+                .withZookeeperVersion(zookeeperVersion)
+                .withPinotVersion(pinotVersion)
+                .withNetwork(network)
+                .withMinions(enableMinion ? 1 : 0)
+                .withLocalstack(enableLocalstack));
+    }
+
+    private ApachePinotCluster(Builder builder) {
+        Network network = builder.network != null ? builder.network : Network.newNetwork();
 
         this.zookeeper =
-                new GenericContainer<>(zookeeperVersion)
+                new GenericContainer<>(builder.zookeeperVersion)
                         .withNetwork(network)
                         .withNetworkAliases(ZOOKEEPER_ALIAS)
                         .withExposedPorts(ZOOKEEPER_PORT)
@@ -84,55 +111,65 @@ public class ApachePinotCluster implements Startable {
                         .withLogConsumer(new Slf4jLogConsumer(LoggerFactory.getLogger(ZOOKEEPER_ALIAS)));
 
         this.pinotController =
-                new GenericContainer<>(pinotVersion)
+                new GenericContainer<>(builder.pinotVersion)
                         .withNetwork(network)
                         .withNetworkAliases(CONTROLLER_ALIAS)
                         .dependsOn(zookeeper)
                         .withExposedPorts(CONTROLLER_PORT)
-                        .withEnv(JAVA_OPTS, getJavaOpts("1G", "4G"))
+                        .withEnv(JAVA_OPTS, builder.controllerJavaOpts)
                         .withEnv("LOG4J_CONSOLE_LEVEL", "warn")
                         .withCommand(CONTROLLER_COMMAND)
                         .waitingFor(getWaitStrategy("CONTROLLER"))
                         .withLogConsumer(new Slf4jLogConsumer(LoggerFactory.getLogger(CONTROLLER_ALIAS)));
 
-        this.pinotBroker =
-                new GenericContainer<>(pinotVersion)
-                        .withNetwork(network)
-                        .withNetworkAliases(BROKER_ALIAS)
-                        .dependsOn(pinotController)
-                        .withExposedPorts(BROKER_PORT)
-                        .withEnv(JAVA_OPTS, getJavaOpts("4G", "4G"))
-                        .withEnv("LOG4J_CONSOLE_LEVEL", "warn")
-                        .withCommand(BROKER_COMMAND)
-                        .waitingFor(getWaitStrategy("BROKER"))
-                        .withLogConsumer(new Slf4jLogConsumer(LoggerFactory.getLogger(BROKER_ALIAS)));
+        for (int i = 0; i < builder.brokers; i++) {
+            String alias = getAlias(BROKER_ALIAS, i);
 
-        this.pinotServer =
-                new GenericContainer<>(pinotVersion)
-                        .withNetwork(network)
-                        .withNetworkAliases(SERVER_ALIAS)
-                        .dependsOn(pinotBroker)
-                        .withExposedPorts(SERVER_PORT)
-                        .withEnv(JAVA_OPTS, getJavaOpts("4G", "8G"))
-                        .withEnv("LOG4J_CONSOLE_LEVEL", "warn")
-                        .withCommand(SERVER_COMMAND)
-                        .waitingFor(getWaitStrategy("SERVER"))
-                        .withLogConsumer(new Slf4jLogConsumer(LoggerFactory.getLogger(SERVER_ALIAS)));
+            this.pinotBrokers.add(
+                    new GenericContainer<>(builder.pinotVersion)
+                            .withNetwork(network)
+                            .withNetworkAliases(alias)
+                            .dependsOn(pinotController)
+                            .withExposedPorts(BROKER_PORT)
+                            .withEnv(JAVA_OPTS, builder.brokerJavaOpts)
+                            .withEnv("LOG4J_CONSOLE_LEVEL", "warn")
+                            .withCommand(BROKER_COMMAND)
+                            .waitingFor(getWaitStrategy("BROKER"))
+                            .withLogConsumer(new Slf4jLogConsumer(LoggerFactory.getLogger(alias))));
+        }
+
+        for (int i = 0; i < builder.servers; i++) {
+            String alias = getAlias(SERVER_ALIAS, i);
 
-        if (enableMinion) {
-            this.pinotMinion =
-                    new GenericContainer<>(pinotVersion)
+            this.pinotServers.add(
+                    new GenericContainer<>(builder.pinotVersion)
                             .withNetwork(network)
-                            .withNetworkAliases(MINION_ALIAS)
-                            .dependsOn(pinotBroker)
-                            .withEnv(JAVA_OPTS, getJavaOpts("4G", "8G"))
+                            .withNetworkAliases(alias)
+                            .dependsOn(pinotController)
+                            .withExposedPorts(SERVER_PORT)
+                            .withEnv(JAVA_OPTS, builder.serverJavaOpts)
+                            .withEnv("LOG4J_CONSOLE_LEVEL", "warn")
+                            .withCommand(SERVER_COMMAND)
+                            .waitingFor(getWaitStrategy("SERVER"))
+                            .withLogConsumer(new Slf4jLogConsumer(LoggerFactory.getLogger(alias))));
+        }
+
+        for (int i = 0; i < builder.minions; i++) {
+            String alias = getAlias(MINION_ALIAS, i);
+
+            this.pinotMinions.add(
+                    new GenericContainer<>(builder.pinotVersion)
+                            .withNetwork(network)
+                            .withNetworkAliases(alias)
+                            .dependsOn(pinotController)
+                            .withEnv(JAVA_OPTS, builder.minionJavaOpts)
                             .withEnv("LOG4J_CONSOLE_LEVEL", "warn")
                             .withCommand(MINION_COMMAND)
                             .waitingFor(getWaitStrategy("MINION"))
-                            .withLogConsumer(new Slf4jLogConsumer(LoggerFactory.getLogger(MINION_ALIAS)));
+                            .withLogConsumer(new Slf4jLogConsumer(LoggerFactory.getLogger(alias))));
         }
 
-        if (enableLocalstack) {
+        if (builder.enableLocalstack) {
             this.localStack = new LocalStackContainer(LOCALSTACK_IMAGE_NAME)
                     .withNetwork(network)
                     .withNetworkAliases("localstack")
@@ -142,16 +179,47 @@ public class ApachePinotCluster implements Startable {
                     .withServices("s3");
 
         }
+
+        log.debug("cluster topology: brokers={}, servers={}, minions={}, localstack={}", builder.brokers, builder.servers, builder.minions, builder.enableLocalstack);
     }
 
     @Override
     public void start() {
+        if (!started.compareAndSet(false, true)) {
+            log.debug("containers already started");
+            return;
+        }
+
         log.info("starting all containers");
-        allContainers().sequential().forEach(GenericContainer::start);
+
+        long start = System.nanoTime();
+        Map<Startable, CompletableFuture<Void>> futures = new IdentityHashMap<>();
+
+        // each container starts as soon as the containers it dependsOn are up, so independent branches
+        // (brokers/servers/minions after the controller, localstack right away) boot in parallel
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture.allOf(allContainers().map(container -> startAsync(container, futures, executor)).toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            // a failed start must not leave the cluster marked started, or a retry would return without starting anything
+            started.set(false);
+
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw e;
+        } catch (RuntimeException | Error e) {
+            started.set(false);
+            throw e;
+        }
+
+        log.info("started all containers in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
     }
 
     @Override
     public void stop() {
+        started.set(false);
+
         log.info("stopping all containers");
         allContainers().parallel().forEach(GenericContainer::stop);
     }
@@ -163,20 +231,20 @@ public class ApachePinotCluster implements Startable {
     }
 
     public String getServerLogs() {
-        return pinotServer.getLogs();
+        return pinotServers.getFirst().getLogs();
     }
 
     public String getBrokerLogs() {
-        return pinotBroker.getLogs();
+        return pinotBrokers.getFirst().getLogs();
     }
 
     public String getControllerLogs() {
-        return pinotBroker.getLogs();
+        return pinotController.getLogs();
     }
 
     public String getMinionLogs() {
-        if (pinotMinion != null) {
-            return pinotMinion.getLogs();
+        if (!pinotMinions.isEmpty()) {
+            return pinotMinions.getFirst().getLogs();
         }
 
         return null;
@@ -194,6 +262,52 @@ public class ApachePinotCluster implements Startable {
         return localStack;
     }
 
+    public int getBrokerCount() {
+        return pinotBrokers.size();
+    }
+
+    public int getServerCount() {
+        return pinotServers.size();
+    }
+
+    public int getMinionCount() {
+        return pinotMinions.size();
+    }
+
+    private static CompletableFuture<Void> startAsync(Startable container, Map<Startable, CompletableFuture<Void>> started, Executor executor) {
+        CompletableFuture<Void> future = started.get(container);
+
+        if (future != null) {
+            return future;
+        }
+
+        CompletableFuture<?>[] dependencies = container.getDependencies().stream()
+                .map(dependency -> startAsync(dependency, started, executor))
+                .toArray(CompletableFuture[]::new);
+
+        future = CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+            long start = System.nanoTime();
+            container.start();
+            log.info("started {} in {} ms", getName(container), Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }, executor);
+
+        started.put(container, future);
+        return future;
+    }
+
+    private static String getName(Startable container) {
+        if (container instanceof GenericContainer<?> genericContainer && !genericContainer.getNetworkAliases().isEmpty()) {
+            return genericContainer.getNetworkAliases().getLast();
+        }
+
+        return container.toString();
+    }
+
+    // the first node of each role keeps the plain alias so single node clusters look the same as before
+    private static String getAlias(String alias, int index) {
+        return index == 0 ? alias : "%s-%d".formatted(alias, index);
+    }
+
     @NotNull
     private static String getJavaOpts(String xms, String xmx) {
         return "-Dplugins.dir=/opt/pinot/plugins -Xms%s -Xmx%s -XX:+UseG1GC -XX:MaxGCPauseMillis=200".formatted(xms, xmx);
@@ -204,13 +318,13 @@ public class ApachePinotCluster implements Startable {
     }
 
     private Stream<GenericContainer<?>> allContainers() {
-        Stream<GenericContainer<?>> stream = Stream.of(this.zookeeper, this.pinotController, this.pinotBroker, this.pinotServer);
+        Stream<GenericContainer<?>> stream = Stream.of(this.zookeeper, this.pinotController);
 
-        if (enableMinion) {
-            stream = Stream.concat(stream, Stream.of(this.pinotMinion));
-        }
+        stream = Stream.concat(stream, pinotBrokers.stream());
+        stream = Stream.concat(stream, pinotServers.stream());
+        stream = Stream.concat(stream, pinotMinions.stream());
 
-        if (enableLocalstack) {
+        if (localStack != null) {
             stream = Stream.concat(stream, Stream.of(this.localStack));
         }
 
@@ -222,12 +336,121 @@ public class ApachePinotCluster implements Startable {
     }
 
     public int getBrokerPort() {
-        return pinotBroker.getMappedPort(BROKER_PORT);
+        return pinotBrokers.getFirst().getMappedPort(BROKER_PORT);
+    }
+
+    public List<Integer> getBrokerPorts() {
+        return pinotBrokers.stream().map(broker -> broker.getMappedPort(BROKER_PORT)).toList();
+    }
+
+    // comma separated, the format pinot.broker.url accepts for routing across every broker
+    public String getBrokerUrls() {
+        return getBrokerPorts().stream().map("http://localhost:%d"::formatted).collect(Collectors.joining(","));
+    }
+
+    public List<Integer> getServerPorts() {
+        return pinotServers.stream().map(server -> server.getMappedPort(SERVER_PORT)).toList();
     }
 
     public int getLocalstackPort() {
         return localStack.getMappedPort(LOCALSTACK_PORT);
     }
 
+    public static final class Builder {
+
+        private String zookeeperVersion = DEFAULT_ZOOKEEPER_VERSION;
+        private String pinotVersion = DEFAULT_PINOT_VERSION;
+        private Network network;
+        private int brokers = 1;
+        private int servers = 1;
+        private int minions = 0;
+        private boolean enableLocalstack = false;
+        private String controllerJavaOpts = getJavaOpts("1G", "4G");
+        private String brokerJavaOpts = getJavaOpts("4G", "4G");
+        private String serverJavaOpts = getJavaOpts("4G", "8G");
+        private String minionJavaOpts = getJavaOpts("4G", "8G");
+
+        private Builder() {
+        }
+
+        public Builder withZookeeperVersion(String zookeeperVersion) {
+            this.zookeeperVersion = zookeeperVersion;
+            return this;
+        }
+
+        public Builder withPinotVersion(String pinotVersion) {
+            this.pinotVersion = pinotVersion;
+            return this;
+        }
+
+        public Builder withNetwork(Network network) {
+            this.network = network;
+            return this;
+        }
+
+        public Builder withBrokers(int brokers) {
+            if (brokers < 1) {
+                throw new IllegalArgumentException("a cluster needs at least one broker");
+            }
+
+            this.brokers = brokers;
+            return this;
+        }
+
+        public Builder withServers(int servers) {
+            if (servers < 1) {
+                throw new IllegalArgumentException("a cluster needs at least one server");
+            }
+
+            this.servers = servers;
+            return this;
+        }
+
+        public Builder withMinions(int minions) {
+            if (minions < 0) {
+                throw new IllegalArgumentException("minions can't be negative");
+            }
+
+            this.minions = minions;
+            return this;
+        }
+
+        public Builder withLocalstack(boolean enableLocalstack) {
+            this.enableLocalstack = enableLocalstack;
+            return this;
+        }
+
+        public Builder withControllerHeap(String xms, String xmx) {
+            this.controllerJavaOpts = getJavaOpts(xms, xmx);
+            return this;
+        }
+
+        public Builder withBrokerHeap(String xms, String xmx) {
+            this.brokerJavaOpts = getJavaOpts(xms, xmx);
+            return this;
+        }
+
+        public Builder withServerHeap(String xms, String xmx) {
+            this.serverJavaOpts = getJavaOpts(xms, xmx);
+            return this;
+        }
+
+        public Builder withMinionHeap(String xms, String xmx) {
+            this.minionJavaOpts = getJavaOpts(xms, xmx);
+            return this;
+        }
+
+        public ApachePinotCluster build() {
+            return new ApachePinotCluster(this);
+        }
+    }
+
+    private static final class SharedCluster {
+
+        private static final ApachePinotCluster INSTANCE = new ApachePinotCluster(true, true);
 
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::stop, "pinot-cluster-shutdown"));
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package org.apache.pinot.tc;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.client.PinotDriver;
 import org.apache.pinot.tc.api.PostResponse;
@@ -7,6 +8,7 @@ import org.junit.jupiter.api.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.Resource;
@@ -15,15 +17,17 @@ import org.springframework.test.context.DynamicPropertySource;
 
 import java.sql.*;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Properties;
 
 @SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class BasicPinotJDBCTests {
 
     private static final Logger log = LoggerFactory.getLogger(BasicPinotJDBCTests.class);
 
-    static ApachePinotCluster pinotCluster = new ApachePinotCluster(false, false);
+    static ApachePinotCluster pinotCluster = ApachePinotCluster.shared();
 
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
@@ -34,6 +38,13 @@ class BasicPinotJDBCTests {
     @Autowired
     private ControllerService controllerService;
 
+    @Autowired
+    private BrokerService brokerService;
+
+    @Autowired
+    @Qualifier("pinot_data_source")
+    private HikariDataSource dataSource;
+
     @Value("classpath:transcript-schema.json")
     private Resource transcriptSchemaDefinition;
 
@@ -49,18 +60,8 @@ class BasicPinotJDBCTests {
     }
 
     @AfterAll
-    static void afterAll() {
-        pinotCluster.stop();
-    }
-
-    @BeforeEach
-    void setUp() {
-        try {
-            log.error("taking a quick nap before starting test...");
-            Thread.sleep(Duration.ofSeconds(10L));
-        } catch (InterruptedException e) {
-            log.error("error while sleeping: {}", e.getMessage(), e);
-        }
+    void afterAll() {
+        controllerService.reset();
     }
 
     @Test
@@ -99,6 +100,9 @@ class BasicPinotJDBCTests {
             Assertions.assertNotNull(response);
             Assertions.assertTrue(StringUtils.containsIgnoreCase(response.getStatus(), "successfully ingested file into table"), "response was: %s".formatted(response));
             log.debug("ingest from file response: {}", response);
+
+            controllerService.awaitTableReady("transcript_OFFLINE", 1, Duration.ofMinutes(1));
+            brokerService.awaitRowCount("transcript", 4, Duration.ofMinutes(1));
         } catch (Exception e) {
             log.error(e.getMessage(), e);
             Assertions.fail(e);
@@ -118,6 +122,34 @@ class BasicPinotJDBCTests {
 
     }
 
+    @Test
+    @Order(5)
+    void testPooledQueries() {
+        Map<String, Integer> expected = Map.of("Maths", 2, "English", 1, "Physics", 1);
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement statement = conn.prepareStatement("select count(*) from transcript where subject = ?")) {
+
+            for (int i = 0; i < 3; i++) {
+                for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+                    statement.setString(1, entry.getKey());
+
+                    try (ResultSet rs = statement.executeQuery()) {
+                        Assertions.assertTrue(rs.next());
+                        Assertions.assertEquals(entry.getValue(), rs.getInt(1));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+
+        // the connection went back to the pool instead of being closed
+        Assertions.assertTrue(dataSource.getHikariPoolMXBean().getTotalConnections() > 0);
+        Assertions.assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+    }
+
     private void registerDriver() {
         try {
             DriverManager.registerDriver(new PinotDriver());
@@ -2,8 +2,16 @@ package org.apache.pinot.tc;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.tc.api.PostResponse;
+import org.apache.pinot.tc.api.QueryOptions;
 import org.apache.pinot.tc.api.QueryResponse;
+import org.apache.pinot.tc.api.ResultTable;
+import org.apache.pinot.tc.bootstrap.BootstrapResult;
+import org.apache.pinot.tc.bootstrap.TableBootstrapService;
+import org.apache.pinot.tc.ingest.BulkIngestService;
+import org.apache.pinot.tc.ingest.ChunkResult;
+import org.apache.pinot.tc.ingest.SegmentBuildService;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,16 +20,28 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.Resource;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
 
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 @SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class BasicPinotTests {
 
     private static final Logger log = LoggerFactory.getLogger(BasicPinotTests.class);
 
-    static ApachePinotCluster pinotCluster = new ApachePinotCluster(false, false);
+    static ApachePinotCluster pinotCluster = ApachePinotCluster.shared();
 
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
@@ -35,6 +55,15 @@ class BasicPinotTests {
     @Autowired
     private BrokerService brokerService;
 
+    @Autowired
+    private BulkIngestService bulkIngestService;
+
+    @Autowired
+    private SegmentBuildService segmentBuildService;
+
+    @Autowired
+    private TableBootstrapService tableBootstrapService;
+
     @Value("classpath:transcript-schema.json")
     private Resource transcriptSchemaDefinition;
 
@@ -49,19 +78,9 @@ class BasicPinotTests {
         pinotCluster.start();
     }
 
-    @BeforeEach
-    void setUp() {
-        try {
-            log.error("taking a quick nap before starting test...");
-            Thread.sleep(Duration.ofSeconds(10L));
-        } catch (InterruptedException e) {
-            log.error("error while sleeping: {}", e.getMessage(), e);
-        }
-    }
-
     @AfterAll
-    static void afterAll() {
-        pinotCluster.stop();
+    void afterAll() {
+        controllerService.reset();
     }
 
     @Test
@@ -100,6 +119,9 @@ class BasicPinotTests {
             Assertions.assertNotNull(response);
             Assertions.assertTrue(StringUtils.containsIgnoreCase(response.getStatus(), "successfully ingested file into table"), "response was: %s".formatted(response));
             log.debug("ingest from file response: {}", response);
+
+            controllerService.awaitTableReady("transcript_OFFLINE", 1, Duration.ofMinutes(1));
+            brokerService.awaitRowCount("transcript", 4, Duration.ofMinutes(1));
         } catch (Exception e) {
             log.error(e.getMessage(), e);
             Assertions.fail(e);
@@ -113,6 +135,9 @@ class BasicPinotTests {
             QueryResponse response = brokerService.executeQuery("select avg(score) from transcript");
             Assertions.assertNotNull(response);
             Assertions.assertEquals(1, response.getNumRowsResultSet());
+            Assertions.assertNotNull(response.getResultTable());
+            Assertions.assertEquals(1, response.getResultTable().getRowCount());
+            Assertions.assertEquals(3.525, response.getResultTable().getDouble(0, 0), 0.001);
             log.debug("query response: {}", response);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
@@ -120,4 +145,206 @@ class BasicPinotTests {
         }
     }
 
+    @Test
+    @Order(5)
+    void testStreamQuery() {
+        try {
+            List<Object[]> rows = brokerService.streamQuery("select studentID, subject, score from transcript").collectList().block();
+            Assertions.assertNotNull(rows);
+            Assertions.assertEquals(4, rows.size());
+            Assertions.assertEquals(3, rows.getFirst().length);
+            log.debug("streamed {} rows", rows.size());
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    @Order(6)
+    void testConcurrentAsyncQueries() {
+        try {
+            List<QueryResponse> responses = Flux.range(0, 20)
+                    .flatMap(i -> brokerService.executeQueryAsync("select count(*) from transcript"))
+                    .collectList()
+                    .block();
+            Assertions.assertNotNull(responses);
+            Assertions.assertEquals(20, responses.size());
+            responses.forEach(response -> Assertions.assertEquals(4, response.getResultTable().getLong(0, 0)));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    @Order(7)
+    void testBulkIngest() {
+        try {
+            // one byte chunks force a chunk (and segment) per row
+            List<ChunkResult> results = bulkIngestService.ingestAsync("transcript_OFFLINE", new BatchIngestConfiguration("csv", ","), transcriptData.getFile().toPath(), DataSize.ofBytes(1))
+                    .collectList()
+                    .block();
+            Assertions.assertNotNull(results);
+            Assertions.assertEquals(4, results.size());
+            results.forEach(result -> Assertions.assertTrue(StringUtils.containsIgnoreCase(result.getResponse().getStatus(), "successfully ingested file into table"), "result was: %s".formatted(result)));
+
+            Assertions.assertEquals(8, brokerService.awaitRowCount("transcript", 8, Duration.ofMinutes(1)));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    @Order(8)
+    void testBuildAndPushSegments() {
+        try {
+            List<ChunkResult> results = segmentBuildService.buildAndPush(
+                    transcriptSchemaDefinition.getContentAsString(Charset.defaultCharset()),
+                    transcriptTableDefinition.getContentAsString(Charset.defaultCharset()),
+                    new BatchIngestConfiguration("csv", ","),
+                    transcriptData.getFile().toPath());
+            Assertions.assertNotNull(results);
+            Assertions.assertFalse(results.isEmpty());
+            results.forEach(result -> Assertions.assertTrue(StringUtils.containsIgnoreCase(result.getResponse().getStatus(), "successfully uploaded"), "result was: %s".formatted(result)));
+
+            Assertions.assertEquals(12, brokerService.awaitRowCount("transcript", 12, Duration.ofMinutes(1)));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    @Order(9)
+    void testBlockingQueriesOnVirtualThreads() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<QueryResponse>> futures = IntStream.range(0, 500)
+                    .mapToObj(i -> executor.submit(() -> brokerService.executeQuery("select count(*) from transcript")))
+                    .toList();
+
+            for (Future<QueryResponse> future : futures) {
+                Assertions.assertEquals(12, future.get().getResultTable().getLong(0, 0));
+            }
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    @Order(10)
+    void testQueryWithTimeout() {
+        try {
+            QueryResponse queryResponse = brokerService.executeQuery("select count(*) from transcript", QueryOptions.timeout(Duration.ofSeconds(10)));
+            Assertions.assertNotNull(queryResponse);
+            Assertions.assertTrue(queryResponse.getExceptions().isEmpty(), "exceptions were: %s".formatted(queryResponse.getExceptions()));
+            Assertions.assertEquals(12, queryResponse.getResultTable().getLong(0, 0));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    @Order(11)
+    void testFetchPages() {
+        try {
+            List<ResultTable> pages = brokerService.fetchPages("select * from transcript order by studentID", 5)
+                    .collectList()
+                    .block();
+            Assertions.assertNotNull(pages);
+            Assertions.assertEquals(12, pages.stream().mapToInt(ResultTable::getRowCount).sum());
+
+            // the query's own LIMIT bounds the rows, a trailing comment must not swallow the generated one
+            List<ResultTable> limited = brokerService.fetchPages("select * from transcript order by studentID limit 7 -- first seven", 5)
+                    .collectList()
+                    .block();
+            Assertions.assertNotNull(limited);
+            Assertions.assertEquals(7, limited.stream().mapToInt(ResultTable::getRowCount).sum());
+
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> brokerService.fetchPages("select * from transcript order by studentID limit 5 offset 5", 5));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    @Order(12)
+    void testPreparedQuery() {
+        try {
+            PreparedPinotQuery query = PreparedPinotQuery.prepare("select count(*) from transcript where subject = ?");
+
+            QueryResponse literal = brokerService.executeQuery("select count(*) from transcript where subject = 'Maths'");
+            QueryResponse prepared = brokerService.executeQuery(query, query.newParameters().setString(0, "Maths"));
+            Assertions.assertEquals(literal.getResultTable().getLong(0, 0), prepared.getResultTable().getLong(0, 0));
+
+            // quotes in the value must stay inside the literal
+            QueryResponse quoted = brokerService.executeQuery(query, query.newParameters().setString(0, "Maths' or '1' = '1"));
+            Assertions.assertTrue(quoted.getExceptions().isEmpty(), "exceptions were: %s".formatted(quoted.getExceptions()));
+            Assertions.assertEquals(0, quoted.getResultTable().getLong(0, 0));
+
+            // a ? inside a comment is not a placeholder
+            PreparedPinotQuery commented = PreparedPinotQuery.prepare("""
+                    select count(*) from transcript -- which subject?
+                    where subject = ? /* Maths? */""");
+            Assertions.assertEquals(1, commented.getParameterCount());
+
+            QueryResponse fromCommented = brokerService.executeQuery(commented, commented.newParameters().setString(0, "Maths"));
+            Assertions.assertEquals(literal.getResultTable().getLong(0, 0), fromCommented.getResultTable().getLong(0, 0));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    @Order(13)
+    void testExecuteBatch() {
+        try {
+            List<String> queries = List.of(
+                    "select count(*) from transcript",
+                    "select count(*) from transcript where subject = 'Maths'",
+                    "select max(score) from transcript");
+
+            List<QueryResponse> responses = brokerService.executeBatch(queries);
+            Assertions.assertEquals(queries.size(), responses.size());
+            Assertions.assertEquals(12, responses.getFirst().getResultTable().getLong(0, 0));
+
+            List<BatchResult> results = brokerService.streamBatch(queries)
+                    .collectSortedList(Comparator.comparingInt(BatchResult::getIndex))
+                    .block();
+            Assertions.assertNotNull(results);
+            Assertions.assertEquals(queries.size(), results.size());
+            results.forEach(result -> Assertions.assertTrue(result.isSuccess(), "result was: %s".formatted(result)));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    @Order(14)
+    void testBootstrap(@TempDir Path configDir) {
+        try {
+            Files.copy(transcriptSchemaDefinition.getFile().toPath(), configDir.resolve("transcript-schema.json"));
+            Files.copy(transcriptTableDefinition.getFile().toPath(), configDir.resolve("transcript-table-offline.json"));
+
+            // schema and table already exist from the earlier tests, so both are updated in place
+            List<BootstrapResult> first = tableBootstrapService.bootstrap(configDir);
+            Assertions.assertEquals(2, first.size());
+            first.forEach(result -> Assertions.assertEquals(BootstrapResult.Action.UPDATED, result.getAction(), "result was: %s".formatted(result)));
+
+            List<BootstrapResult> second = tableBootstrapService.bootstrap(configDir);
+            Assertions.assertEquals(2, second.size());
+            second.forEach(result -> Assertions.assertEquals(BootstrapResult.Action.UNCHANGED, result.getAction(), "result was: %s".formatted(result)));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
 }
@@ -0,0 +1,144 @@
+package org.apache.pinot.tc;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.tc.api.PostResponse;
+import org.apache.pinot.tc.api.QueryResponse;
+import org.apache.pinot.tc.api.SqlQuery;
+import org.apache.pinot.tc.routing.BrokerEndpoint;
+import org.apache.pinot.tc.routing.BrokerRouter;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+
+// runs its own cluster rather than the shared one, which has a single broker and server
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ScaledClusterTests {
+
+    private static final Logger log = LoggerFactory.getLogger(ScaledClusterTests.class);
+
+    private static final int BROKERS = 2;
+    private static final int SERVERS = 2;
+
+    static ApachePinotCluster pinotCluster = ApachePinotCluster.builder()
+            .withBrokers(BROKERS)
+            .withServers(SERVERS)
+            .withServerHeap("1G", "2G")
+            .withBrokerHeap("1G", "1G")
+            .build();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("pinot.controller.url", () -> String.format("http://localhost:%d", pinotCluster.getControllerPort()));
+        registry.add("pinot.broker.url", pinotCluster::getBrokerUrls);
+    }
+
+    @Autowired
+    private ControllerService controllerService;
+
+    @Autowired
+    private BrokerRouter brokerRouter;
+
+    @Autowired
+    @Qualifier("broker_client")
+    private WebClient brokerClient;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Value("classpath:transcript-schema.json")
+    private Resource transcriptSchemaDefinition;
+
+    @Value("classpath:transcript-table-offline.json")
+    private Resource transcriptTableDefinition;
+
+    @Value("classpath:transcripts.csv")
+    private Resource transcriptData;
+
+    @BeforeAll
+    static void beforeAll() {
+        pinotCluster.start();
+    }
+
+    @AfterAll
+    void afterAll() {
+        pinotCluster.close();
+    }
+
+    @Test
+    @Order(1)
+    void testTopology() {
+        Assertions.assertEquals(BROKERS, pinotCluster.getBrokerCount());
+        Assertions.assertEquals(SERVERS, pinotCluster.getServerCount());
+
+        List<String> brokerUrls = List.of(pinotCluster.getBrokerUrls().split(","));
+        Assertions.assertEquals(BROKERS, brokerUrls.size());
+        Assertions.assertEquals(BROKERS, brokerUrls.stream().distinct().count(), "broker urls were: %s".formatted(brokerUrls));
+        Assertions.assertEquals(BROKERS, brokerRouter.getEndpoints().size());
+    }
+
+    @Test
+    @Order(2)
+    void testIngestData() {
+        try {
+            PostResponse response = controllerService.createSchema(transcriptSchemaDefinition);
+            Assertions.assertTrue(StringUtils.containsIgnoreCase(response.getStatus(), "successfully added"), "response was: %s".formatted(response));
+
+            response = controllerService.createTable(transcriptTableDefinition);
+            Assertions.assertTrue(StringUtils.containsIgnoreCase(response.getStatus(), "successfully added"), "response was: %s".formatted(response));
+
+            response = controllerService.ingestFromFile("transcript_OFFLINE", new BatchIngestConfiguration("csv", ","), transcriptData);
+            Assertions.assertTrue(StringUtils.containsIgnoreCase(response.getStatus(), "successfully ingested file into table"), "response was: %s".formatted(response));
+
+            controllerService.awaitTableReady("transcript_OFFLINE", 1, Duration.ofMinutes(1));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    // sent to each broker directly, the router would otherwise be free to pick the same broker every time
+    @Test
+    @Order(3)
+    void testQueryThroughEachBroker() {
+        for (BrokerEndpoint endpoint : brokerRouter.getEndpoints()) {
+            long rows = Polling.await("%s to see 4 rows".formatted(endpoint),
+                            () -> count(endpoint),
+                            count -> count >= 4,
+                            Duration.ofMinutes(1))
+                    .block();
+
+            log.debug("{} counted {} rows", endpoint, rows);
+            Assertions.assertEquals(4, rows, "broker %s".formatted(endpoint));
+        }
+    }
+
+    private Mono<Long> count(BrokerEndpoint endpoint) {
+        return brokerClient.post()
+                .uri(endpoint.resolve("query/sql"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(jsonMapper.writeValueAsString(new SqlQuery("select count(*) from transcript")))
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(body -> jsonMapper.readValue(body, QueryResponse.class))
+                // until the broker has routing for the new table it answers with an exception and no result table
+                .map(response -> response.getResultTable() != null && response.getResultTable().getRowCount() > 0
+                        ? response.getResultTable().getLong(0, 0)
+                        : 0L);
+    }
+}
@@ -0,0 +1,126 @@
+package org.apache.pinot.tc;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.tc.api.PostResponse;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+@SpringBootTest(properties = "pinot.client.virtual-threads.enabled=true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class VirtualThreadTests {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadTests.class);
+
+    static ApachePinotCluster pinotCluster = ApachePinotCluster.shared();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("pinot.controller.url", () -> String.format("http://localhost:%d", pinotCluster.getControllerPort()));
+        registry.add("pinot.broker.url", () -> String.format("http://localhost:%d", pinotCluster.getBrokerPort()));
+    }
+
+    @Autowired
+    private ControllerService controllerService;
+
+    @Autowired
+    private BrokerService brokerService;
+
+    @Autowired
+    @Qualifier("pinot_virtual_executor")
+    private ExecutorService virtualExecutor;
+
+    @Autowired
+    @Qualifier("pinot_blocking_scheduler")
+    private Scheduler blockingScheduler;
+
+    @Value("classpath:transcript-schema.json")
+    private Resource transcriptSchemaDefinition;
+
+    @Value("classpath:transcript-table-offline.json")
+    private Resource transcriptTableDefinition;
+
+    @Value("classpath:transcripts.csv")
+    private Resource transcriptData;
+
+    @BeforeAll
+    static void beforeAll() {
+        pinotCluster.start();
+    }
+
+    @AfterAll
+    void afterAll() {
+        controllerService.reset();
+    }
+
+    @Test
+    @Order(1)
+    void testBlockingSchedulerUsesVirtualThreads() {
+        Assertions.assertNotNull(virtualExecutor);
+
+        Thread thread = Mono.fromCallable(Thread::currentThread).subscribeOn(blockingScheduler).block();
+
+        Assertions.assertNotNull(thread);
+        Assertions.assertTrue(thread.isVirtual(), "ran on %s".formatted(thread));
+    }
+
+    @Test
+    @Order(2)
+    void testIngestData() {
+        try {
+            PostResponse response = controllerService.createSchema(transcriptSchemaDefinition);
+            Assertions.assertTrue(StringUtils.containsIgnoreCase(response.getStatus(), "successfully added"), "response was: %s".formatted(response));
+
+            response = controllerService.createTable(transcriptTableDefinition);
+            Assertions.assertTrue(StringUtils.containsIgnoreCase(response.getStatus(), "successfully added"), "response was: %s".formatted(response));
+
+            response = controllerService.ingestFromFile("transcript_OFFLINE", new BatchIngestConfiguration("csv", ","), transcriptData);
+            Assertions.assertTrue(StringUtils.containsIgnoreCase(response.getStatus(), "successfully ingested file into table"), "response was: %s".formatted(response));
+
+            controllerService.awaitTableReady("transcript_OFFLINE", 1, Duration.ofMinutes(1));
+            brokerService.awaitRowCount("transcript", 4, Duration.ofMinutes(1));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            Assertions.fail(e);
+        }
+    }
+
+    // the response is decoded on the blocking scheduler and handed on from the thread that decoded it
+    @Test
+    @Order(3)
+    void testQueryDecodedOnVirtualThread() {
+        Thread thread = brokerService.executeQueryAsync("select avg(score) from transcript")
+                .map(response -> Thread.currentThread())
+                .block();
+
+        Assertions.assertNotNull(thread);
+        Assertions.assertTrue(thread.isVirtual(), "decoded on %s".formatted(thread));
+    }
+
+    @Test
+    @Order(4)
+    void testStreamedRowsReadOnVirtualThreads() {
+        List<Thread> threads = brokerService.streamQuery("select firstName from transcript limit 10")
+                .map(row -> Thread.currentThread())
+                .collectList()
+                .block();
+
+        Assertions.assertNotNull(threads);
+        Assertions.assertEquals(4, threads.size());
+        threads.forEach(thread -> Assertions.assertTrue(thread.isVirtual(), "read on %s".formatted(thread)));
+    }
+}